@@ -1,6 +1,7 @@
 plugins {
     id("fabric-loom") version "1.9-SNAPSHOT"
     kotlin("jvm") version "2.1.0"
+    id("me.champeau.jmh") version "0.7.2"
 }
 
 version = project.property("mod_version") as String
@@ -26,6 +27,65 @@ dependencies {
     modImplementation("net.fabricmc:fabric-language-kotlin:${project.property("fabric_language_kotlin_version")}")
 }
 
+// Benchmarks run headless against the mod's own classes, so they need the same Minecraft/Fabric classpath.
+sourceSets.named("jmh") {
+    compileClasspath += sourceSets.main.get().compileClasspath
+    runtimeClasspath += sourceSets.main.get().runtimeClasspath
+}
+
+jmh {
+    jmhVersion.set("1.37")
+    resultFormat.set("JSON")
+    resultsFile.set(layout.buildDirectory.file("reports/jmh/results.json"))
+    humanOutputFile.set(layout.buildDirectory.file("reports/jmh/human.txt"))
+    profilers.add("gc")
+}
+
+// Headless harnesses on the benchmark classpath. Arguments go through --args, e.g.
+// ./gradlew replay --args="--trace path/to/trace.jsonl --storage binary"
+tasks.register<JavaExec>("replay") {
+    group = "verification"
+    description = "Replays a config screen interaction trace and reports disk writes and latency."
+    classpath = sourceSets["jmh"].runtimeClasspath
+    mainClass.set("com.viewmodel.ReplayHarness")
+}
+
+tasks.register<JavaExec>("checkHookAllocation") {
+    group = "verification"
+    description = "Fails if the held item hooks allocate per frame."
+    classpath = sourceSets["jmh"].runtimeClasspath
+    mainClass.set("com.viewmodel.HookAllocationCheck")
+}
+
+tasks.register<JavaExec>("checkTransform") {
+    group = "verification"
+    description = "Fails if the precomputed held item transform differs from the MatrixStack call sequence."
+    classpath = sourceSets["jmh"].runtimeClasspath
+    mainClass.set("com.viewmodel.TransformGoldenCheck")
+}
+
+tasks.register<JavaExec>("checkSwingAccuracy") {
+    group = "verification"
+    description = "Fails if the swing lookup tables drift from the vanilla swing math beyond their documented error."
+    classpath = sourceSets["jmh"].runtimeClasspath
+    mainClass.set("com.viewmodel.SwingAccuracyCheck")
+}
+
+tasks.register<JavaExec>("checkMultiInstance") {
+    group = "verification"
+    description = "Runs several instances on one config folder and fails if any edit is lost."
+    classpath = sourceSets["jmh"].runtimeClasspath
+    mainClass.set("com.viewmodel.MultiInstanceCheck")
+}
+
+// The headless checks run with the build's own verification.
+tasks.check {
+    dependsOn("checkHookAllocation")
+    dependsOn("checkTransform")
+    dependsOn("checkSwingAccuracy")
+    dependsOn("checkMultiInstance")
+}
+
 tasks.processResources {
     inputs.property("version", project.version)
     filteringCharset = "UTF-8"
@@ -0,0 +1,58 @@
+package com.viewmodel;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Shared setup for the benchmarks. Each benchmark runs in its own forked JVM, so pointing the config
+ * directory at a temp dir before {@link ViewModelConfig} first loads keeps them off the real game files.
+ */
+final class BenchmarkSupport {
+    private BenchmarkSupport() {}
+
+    static Path useTempConfigDir() {
+        String existing = System.getProperty("viewmodel.configDir");
+        if (existing != null) {
+            return Path.of(existing);
+        }
+        try {
+            Path dir = Files.createTempDirectory("viewmodel-jmh");
+            System.setProperty("viewmodel.configDir", dir.toString());
+            return dir;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * {@code count} profiles named {@code Profile 1..count} with every field away from its default.
+     */
+    static List<ViewModelProfile> profiles(int count) {
+        List<ViewModelProfile> profiles = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            profiles.add(profile("Profile " + (i + 1), i));
+        }
+        return profiles;
+    }
+
+    static ViewModelProfile profile(String name, int seed) {
+        float wobble = (seed % 97) / 97.0f;
+        return new ViewModelProfile(
+            name,
+            0.6f + wobble,
+            8.0f * wobble,
+            -4.0f + wobble,
+            2.5f,
+            15.0f + seed % 30,
+            -10.0f,
+            5.0f * wobble,
+            seed % 3 == 0,
+            seed % 3 == 1,
+            seed % 5 == 0 ? new HandTransform(0.9f, 4.0f, -2.0f, 1.0f, 10.0f, -5.0f, 0.0f) : null
+        );
+    }
+}
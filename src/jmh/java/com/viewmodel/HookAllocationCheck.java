@@ -0,0 +1,197 @@
+package com.viewmodel;
+
+import net.minecraft.Bootstrap;
+import net.minecraft.SharedConstants;
+import net.minecraft.client.util.math.MatrixStack;
+import net.minecraft.item.ItemStack;
+import net.minecraft.item.Items;
+import net.minecraft.util.Arm;
+import net.minecraft.util.Hand;
+import net.minecraft.util.math.MathHelper;
+import org.joml.Quaternionf;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Runs the held item hooks headless, both hands per frame, and reads this thread's allocation counter around
+ * a million warmed-up frames. Any allocation after warm-up fails the check with status 1.
+ * Run with {@code ./gradlew checkHookAllocation}.
+ * <p>
+ * Frames go through the same entry points as the hooks: {@link ViewModelConfig#renderStateFor} with a
+ * bound item, items picked by rules (one switching profiles, one overriding fields of a bound profile), an
+ * unbound item and an empty hand, then {@link ViewModelConfig#transformFor} and its blend. The held items
+ * change every few frames, so the rule and blend caches are exercised as well as hit. A last case has both
+ * hands hold items bound to different profiles under one rule that overrides fields of both.
+ */
+public final class HookAllocationCheck {
+    private static final int WARMUP_FRAMES = 200_000;
+    private static final int MEASURED_FRAMES = 1_000_000;
+    private static final int FRAMES_PER_ITEM = 64;
+    // values() copies the array on every call.
+    private static final Hand[] HANDS = Hand.values();
+
+    private static final MatrixStack MATRICES = new MatrixStack();
+    private static final Quaternionf ROTATION = new Quaternionf();
+    private static ItemStack[] stacks;
+    // Keeps the frames from being optimized away.
+    private static volatile float sink;
+
+    private HookAllocationCheck() {}
+
+    public static void main(String[] args) {
+        SharedConstants.createGameVersion();
+        Bootstrap.initialize();
+        BenchmarkSupport.useTempConfigDir();
+        ViewModelConfig.load();
+        configure();
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+        boolean failed = false;
+        failed |= measure(threads, "vanilla swing", false, false);
+        failed |= measure(threads, "no swing", true, false);
+        failed |= measure(threads, "scale swing", false, true);
+
+        // A new generation starts a blend; without client ticks it never finishes, so every frame interpolates.
+        ViewModelConfig.activeChanged(ViewModelConfig.profiles().getActiveProfile());
+        failed |= measure(threads, "blending", false, true);
+
+        HookTimings.setEnabled(true);
+        failed |= measure(threads, "timings on", false, true);
+        HookTimings.setEnabled(false);
+
+        shareOneRule();
+        failed |= measure(threads, "shared rule", false, true);
+
+        ViewModelConfig.shutdown();
+        System.exit(failed ? 1 : 0);
+    }
+
+    /**
+     * Two profiles besides the active one: a bow is bound to the first, a rule switches crossbows to the
+     * second, and another rule moves a bow held in the left arm.
+     */
+    private static void configure() {
+        ViewModelProfileManager profiles = ViewModelConfig.profiles();
+        ViewModelConfig.current.setSize(0.7f);
+        ViewModelConfig.current.setPositionX(3.0f);
+        ViewModelConfig.current.setScaleSwing(true);
+        profiles.create("Bound");
+        ViewModelConfig.current.setSize(1.2f);
+        ViewModelConfig.current.setScaleSwing(false);
+        ViewModelConfig.current.setNoSwing(true);
+        profiles.create("Ruled");
+        profiles.select(0);
+
+        ViewModelConfig.itemBindings().bind("minecraft:bow", "Bound");
+        ViewModelConfig.rules().setRules(List.of(
+            new ViewModelRules.Rule(conditions("minecraft:crossbow", null), "Ruled", null, null, null),
+            new ViewModelRules.Rule(conditions("minecraft:bow", "left"), null, Map.of("posX", -4.0f), null, null)
+        ));
+        ViewModelConfig.rules().compileIfChanged();
+        stacks = new ItemStack[] {
+            new ItemStack(Items.BOW),
+            new ItemStack(Items.CROSSBOW),
+            new ItemStack(Items.STICK),
+            ItemStack.EMPTY
+        };
+    }
+
+    /**
+     * Binds sticks to a third profile and adds a rule for any item after the others, so a bow in the main hand
+     * and a stick in the off hand both go through it, each from its own profile.
+     */
+    private static void shareOneRule() {
+        ViewModelProfileManager profiles = ViewModelConfig.profiles();
+        ViewModelConfig.current.setSize(0.9f);
+        profiles.create("Offhand");
+        profiles.select(0);
+        ViewModelConfig.itemBindings().bind("minecraft:stick", "Offhand");
+        List<ViewModelRules.Rule> rules = new ArrayList<>(ViewModelConfig.rules().rules());
+        rules.add(new ViewModelRules.Rule(ViewModelRules.Conditions.ANY, null, Map.of("posY", 1.5f), null, null));
+        ViewModelConfig.rules().setRules(rules);
+        ViewModelConfig.rules().compileIfChanged();
+        stacks = new ItemStack[] {
+            new ItemStack(Items.BOW),
+            new ItemStack(Items.STICK)
+        };
+    }
+
+    private static ViewModelRules.Conditions conditions(String item, String arm) {
+        return new ViewModelRules.Conditions(item, arm, null, null, null, null, null);
+    }
+
+    private static boolean measure(com.sun.management.ThreadMXBean threads, String label, boolean noSwing, boolean scaleSwing) {
+        ViewModelConfig.current.setNoSwing(noSwing);
+        ViewModelConfig.current.setScaleSwing(scaleSwing);
+        // The bound and rule profiles are prefetched on the I/O thread; let that land before warming up.
+        ViewModelConfig.awaitQuiescence();
+        float result = 0.0f;
+        for (int i = 0; i < WARMUP_FRAMES; i++) {
+            result += frame(i);
+        }
+        long before = threads.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < MEASURED_FRAMES; i++) {
+            result += frame(i);
+        }
+        long allocated = threads.getCurrentThreadAllocatedBytes() - before;
+        sink = result;
+        boolean failed = allocated > 0;
+        System.out.printf(
+            Locale.ROOT,
+            "%-14s %s: %d bytes over %d frames (%.3f per frame)%n",
+            label,
+            failed ? "FAIL" : "ok",
+            allocated,
+            MEASURED_FRAMES,
+            (double) allocated / MEASURED_FRAMES
+        );
+        return failed;
+    }
+
+    /**
+     * What the capture, equip offset, swing offset and renderItem hooks do for both hands in one frame.
+     */
+    private static float frame(int index) {
+        float tickDelta = (index & 15) / 16.0f;
+        float swingProgress = (index & 63) / 64.0f;
+        int held = index / FRAMES_PER_ITEM;
+        MATRICES.loadIdentity();
+        for (Hand hand : HANDS) {
+            Arm arm = hand == Hand.MAIN_HAND ? Arm.RIGHT : Arm.LEFT;
+            int dir = arm == Arm.RIGHT ? 1 : -1;
+            ItemStack stack = stacks[(held + hand.ordinal()) % stacks.length];
+
+            long start = HookTimings.start();
+            ViewModelRenderState state = ViewModelConfig.renderStateFor(stack, arm);
+            ViewModelTransform transform = stack.isEmpty()
+                ? state.transform(hand, arm)
+                : ViewModelConfig.transformFor(hand, arm, state, tickDelta);
+            HookTimings.record(HookTimings.Probe.CAPTURE, start);
+
+            start = HookTimings.start();
+            MATRICES.translate(dir * 0.56F, -0.52F, -0.72F);
+            if (state.noSwing() || state.scaleSwing()) {
+                MATRICES.multiply(ROTATION.rotationY(-dir * 0.0F * MathHelper.RADIANS_PER_DEGREE));
+            }
+            HookTimings.record(HookTimings.Probe.EQUIP, start);
+
+            start = HookTimings.start();
+            SwingCurves swing = state.swing();
+            if (swing != null) {
+                swing.applyTo(MATRICES, dir, swingProgress, ROTATION);
+            }
+            HookTimings.record(HookTimings.Probe.SWING, start);
+
+            if (!stack.isEmpty()) {
+                start = HookTimings.start();
+                transform.applyTo(MATRICES);
+                HookTimings.record(HookTimings.Probe.TRANSFORM, start);
+            }
+        }
+        return MATRICES.peek().getPositionMatrix().m30();
+    }
+}
@@ -0,0 +1,231 @@
+package com.viewmodel;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs several game instances as separate JVMs on one config folder and checks that none of their edits
+ * is lost. Each instance repeatedly edits a profile only it owns and creates profiles of its own, while the
+ * others do the same; afterwards every edit has to be on disk and every instance has to have picked up
+ * every other instance's profiles without reloading.
+ * <pre>{@code
+ * ./gradlew checkMultiInstance --args="--instances 3 --rounds 60 --storage binary"
+ * }</pre>
+ */
+public final class MultiInstanceCheck {
+    private static final int CREATE_EVERY = 10;
+    private static final long SETTLE_MILLIS = 2_000L;
+    private static final long DONE_TIMEOUT_SECONDS = 120L;
+
+    private MultiInstanceCheck() {}
+
+    public static void main(String[] args) throws Exception {
+        int instances = 2;
+        int rounds = 40;
+        String storage = "sharded";
+        int child = -1;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--instances" -> instances = Math.max(2, Integer.parseInt(args[++i]));
+                case "--rounds" -> rounds = Math.max(1, Integer.parseInt(args[++i]));
+                case "--storage" -> storage = args[++i];
+                case "--child" -> child = Integer.parseInt(args[++i]);
+                default -> throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+        if (child >= 0) {
+            runInstance(child, instances, rounds);
+            return;
+        }
+
+        Path configDir = Files.createTempDirectory("viewmodel-instances");
+        System.setProperty("viewmodel.configDir", configDir.toString());
+        System.setProperty("viewmodel.storage", storage);
+        List<ViewModelProfile> seeded = new ArrayList<>();
+        seeded.add(ViewModelProfile.defaults("Default"));
+        for (int i = 0; i < instances; i++) {
+            seeded.add(ViewModelProfile.defaults(ownedProfile(i)));
+        }
+        Path seed = configDir.resolve("instances-seed.json");
+        ViewModelConfig.writeJson(seed, seeded, "Default");
+        ViewModelConfig.load();
+        ViewModelConfig.importJson(seed);
+        ViewModelConfig.awaitQuiescence();
+
+        String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+        List<Process> processes = new ArrayList<>();
+        List<Thread> pumps = new ArrayList<>();
+        ConcurrentHashMap<Integer, Integer> seen = new ConcurrentHashMap<>();
+        for (int i = 0; i < instances; i++) {
+            Process process = new ProcessBuilder(
+                java,
+                "-cp", System.getProperty("java.class.path"),
+                "-Dviewmodel.configDir=" + configDir,
+                "-Dviewmodel.storage=" + storage,
+                "-Dviewmodel.watchDebounceMillis=100",
+                MultiInstanceCheck.class.getName(),
+                "--child", Integer.toString(i),
+                "--instances", Integer.toString(instances),
+                "--rounds", Integer.toString(rounds)
+            ).redirectErrorStream(true).start();
+            processes.add(process);
+            int id = i;
+            Thread pump = new Thread(() -> pump(id, process, seen), "instance " + i + " output");
+            pump.start();
+            pumps.add(pump);
+        }
+        boolean exitedCleanly = true;
+        for (Process process : processes) {
+            exitedCleanly &= process.waitFor() == 0;
+        }
+        for (Thread pump : pumps) {
+            pump.join();
+        }
+
+        ViewModelConfig.load();
+        ViewModelProfileManager onDisk = ViewModelConfig.profiles();
+        int expectedProfiles = seeded.size() + instances * createdPerInstance(rounds);
+        List<String> problems = new ArrayList<>();
+        if (!exitedCleanly) {
+            problems.add("an instance failed");
+        }
+        for (int i = 0; i < instances; i++) {
+            ViewModelProfile owned = onDisk.find(ownedProfile(i));
+            if (owned == null || Float.compare(owned.size(), finalSize(i)) != 0) {
+                problems.add(ownedProfile(i) + " lost its last edit: " + (owned == null ? "missing" : owned.size()));
+            }
+            for (int k = 1; k <= createdPerInstance(rounds); k++) {
+                if (onDisk.find(createdProfile(i, k)) == null) {
+                    problems.add(createdProfile(i, k) + " is missing");
+                }
+            }
+            int instanceSaw = seen.getOrDefault(i, -1);
+            if (instanceSaw != expectedProfiles) {
+                problems.add("instance " + i + " ended with " + instanceSaw + " profiles in memory");
+            }
+        }
+        if (onDisk.profileNames().size() != expectedProfiles) {
+            problems.add(onDisk.profileNames().size() + " profiles on disk");
+        }
+
+        System.out.printf(
+            Locale.ROOT,
+            "%d instances, %d rounds each, %s storage: expected %d profiles, found %d on disk%n",
+            instances,
+            rounds,
+            storage,
+            expectedProfiles,
+            onDisk.profileNames().size()
+        );
+        problems.forEach(problem -> System.out.println("FAILED: " + problem));
+        if (problems.isEmpty()) {
+            System.out.println("Every edit from every instance survived and was picked up by the others.");
+        }
+        ViewModelConfig.shutdown();
+        System.exit(problems.isEmpty() ? 0 : 1);
+    }
+
+    /**
+     * One game instance. The main thread plays the client thread: remote changes are applied between edits.
+     */
+    private static void runInstance(int id, int instances, int rounds) throws Exception {
+        LinkedBlockingQueue<Runnable> clientThread = new LinkedBlockingQueue<>();
+        ViewModelConfig.load();
+        ViewModelConfig.watchExternalEdits(clientThread::add);
+        ViewModelProfileManager profiles = ViewModelConfig.profiles();
+        ProfileEditor editor = new ProfileEditor(profiles, null);
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+
+        int created = 0;
+        for (int round = 1; round <= rounds; round++) {
+            drain(clientThread, random.nextLong(5L, 40L));
+            if (round % CREATE_EVERY == 0) {
+                editor.create(createdProfile(id, ++created));
+            }
+            editor.select(profiles.profileNames().indexOf(ownedProfile(id)));
+            editor.set(ProfileEditor.Slider.SIZE, 0.5 + round / 1000.0);
+            if (random.nextInt(8) == 0) {
+                editor.flush();
+            }
+        }
+        editor.select(profiles.profileNames().indexOf(ownedProfile(id)));
+        editor.set(ProfileEditor.Slider.SIZE, finalSize(id));
+        ViewModelConfig.awaitQuiescence();
+
+        Path configDir = Path.of(System.getProperty("viewmodel.configDir"));
+        Files.createFile(configDir.resolve("done-" + id));
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(DONE_TIMEOUT_SECONDS);
+        while (!allDone(configDir, instances)) {
+            if (System.nanoTime() > deadline) {
+                throw new IllegalStateException("Other instances did not finish");
+            }
+            drain(clientThread, 50L);
+        }
+        drain(clientThread, SETTLE_MILLIS);
+        ViewModelConfig.awaitQuiescence();
+        drain(clientThread, 0L);
+        System.out.println("seen " + profiles.profileNames().size());
+        ViewModelConfig.shutdown();
+        System.exit(0);
+    }
+
+    private static void drain(LinkedBlockingQueue<Runnable> clientThread, long millis) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(millis);
+        do {
+            Runnable task = clientThread.poll(Math.max(0L, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            if (task != null) {
+                task.run();
+            }
+        } while (System.nanoTime() < deadline || !clientThread.isEmpty());
+    }
+
+    private static boolean allDone(Path configDir, int instances) {
+        for (int i = 0; i < instances; i++) {
+            if (Files.notExists(configDir.resolve("done-" + i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void pump(int id, Process process, ConcurrentHashMap<Integer, Integer> seen) {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.startsWith("seen ")) {
+                    seen.put(id, Integer.parseInt(line.substring(5).trim()));
+                } else {
+                    System.out.println("[instance " + id + "] " + line);
+                }
+            }
+        } catch (Exception e) {
+            System.out.println("[instance " + id + "] output lost: " + e);
+        }
+    }
+
+    private static String ownedProfile(int instance) {
+        return "Instance " + instance;
+    }
+
+    private static String createdProfile(int instance, int number) {
+        return "Instance " + instance + " extra " + number;
+    }
+
+    private static int createdPerInstance(int rounds) {
+        return rounds / CREATE_EVERY;
+    }
+
+    private static float finalSize(int instance) {
+        return 0.4f + instance * 0.1f;
+    }
+}
@@ -0,0 +1,77 @@
+package com.viewmodel;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link ViewModelProfileManager} operations as the config screen drives them, at growing library sizes.
+ * The cost per operation should stay flat. The library is stored in binary mode so setup writes one file
+ * instead of one per profile; edits still go through the real write-behind queue.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProfileManagerBenchmark {
+    @Param({"10", "1000", "100000"})
+    public int profiles;
+
+    private ViewModelProfileManager manager;
+    private int next;
+    private boolean flip;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        Path configDir = BenchmarkSupport.useTempConfigDir();
+        System.setProperty("viewmodel.storage", "binary");
+        ProfileBinaryStore.write(
+            configDir.resolve("viewmodel").resolve("profiles.bin"),
+            BenchmarkSupport.profiles(profiles),
+            "Profile 1",
+            0L
+        );
+        ViewModelConfig.load();
+        manager = ViewModelConfig.profiles();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        ViewModelConfig.awaitQuiescence();
+    }
+
+    @Benchmark
+    public ViewModelProfile select() {
+        next = (next + 7919) % profiles;
+        manager.select(next);
+        return manager.getActiveProfile();
+    }
+
+    @Benchmark
+    public boolean createAndDelete() {
+        manager.create("Profile");
+        return manager.deleteActive();
+    }
+
+    @Benchmark
+    public boolean rename() {
+        flip = !flip;
+        return manager.renameActive(flip ? "Renamed A" : "Renamed B");
+    }
+}
@@ -0,0 +1,176 @@
+package com.viewmodel;
+
+import java.lang.management.ManagementFactory;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Replays an {@link InteractionTrace} through {@link ProfileEditor} without a window and reports what the
+ * edit-to-disk pipeline made of it: disk writes and bytes, how many saves the write-behind coalesced or
+ * skipped as unchanged, time and allocation on the calling thread, and whether what ended up on disk
+ * matches memory.
+ * <pre>{@code
+ * ./gradlew replay --args="--trace config/viewmodel/traces/trace-20260101-120000.jsonl --storage binary"
+ * }</pre>
+ * Without {@code --trace} a built-in session of slider drags, toggles and profile operations is replayed.
+ * Steps wait out their recorded delays, because coalescing depends on them; {@code --fast} skips the waits
+ * to measure raw throughput. {@code --profiles <n>} sizes the library the trace starts from. Exits with
+ * status 1 if the persisted state differs from memory.
+ */
+public final class ReplayHarness {
+    private ReplayHarness() {}
+
+    public static void main(String[] args) throws Exception {
+        Path tracePath = null;
+        boolean fast = false;
+        int profileCount = 10;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--trace" -> tracePath = Path.of(args[++i]);
+                case "--fast" -> fast = true;
+                case "--profiles" -> profileCount = Math.max(1, Integer.parseInt(args[++i]));
+                case "--storage" -> System.setProperty("viewmodel.storage", args[++i]);
+                default -> throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+
+        Path configDir = BenchmarkSupport.useTempConfigDir();
+        Path seed = configDir.resolve("replay-seed.json");
+        ViewModelConfig.writeJson(seed, BenchmarkSupport.profiles(profileCount), "Profile 1");
+        ViewModelConfig.load();
+        ViewModelConfig.importJson(seed);
+        InteractionTrace trace = tracePath != null ? InteractionTrace.read(tracePath) : builtInSession();
+
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        ProfileEditor editor = new ProfileEditor(ViewModelConfig.profiles(), null);
+        LatencyHistogram latency = new LatencyHistogram();
+        ViewModelConfig.SaveStats statsBefore = ViewModelConfig.saveStats();
+        long filesBefore = AtomicFiles.filesWritten();
+        long filesSkippedBefore = AtomicFiles.filesSkipped();
+        long bytesBefore = AtomicFiles.bytesWritten();
+        long busyNanos = 0L;
+        long allocated = 0L;
+        int drags = 0;
+        String dragging = null;
+
+        long replayStart = System.nanoTime();
+        for (InteractionTrace.Step step : trace.steps()) {
+            if (!fast && step.delayMillis() > 0) {
+                Thread.sleep(step.delayMillis());
+            }
+            long allocatedBefore = threads.getCurrentThreadAllocatedBytes();
+            long start = System.nanoTime();
+            editor.replay(step);
+            long elapsed = System.nanoTime() - start;
+            allocated += threads.getCurrentThreadAllocatedBytes() - allocatedBefore;
+            busyNanos += elapsed;
+            latency.record(elapsed);
+
+            boolean slider = InteractionTrace.OP_SET.equals(step.op());
+            if (slider && !step.target().equals(dragging)) {
+                drags++;
+            }
+            dragging = slider ? step.target() : null;
+        }
+        // Whatever the write-behind still holds is written as if the screen closed.
+        long flushStart = System.nanoTime();
+        ViewModelConfig.awaitQuiescence();
+        long flushNanos = System.nanoTime() - flushStart;
+        long wallNanos = System.nanoTime() - replayStart;
+
+        ViewModelConfig.SaveStats statsAfter = ViewModelConfig.saveStats();
+        long files = AtomicFiles.filesWritten() - filesBefore;
+        long bytes = AtomicFiles.bytesWritten() - bytesBefore;
+        long requested = statsAfter.requested() - statsBefore.requested();
+        long performed = statsAfter.performed() - statsBefore.performed();
+        long skipped = statsAfter.skipped() - statsBefore.skipped();
+        long filesSkipped = AtomicFiles.filesSkipped() - filesSkippedBefore;
+
+        List<ViewModelProfile> inMemory = ViewModelConfig.profiles().snapshot();
+        String activeInMemory = ViewModelConfig.profiles().getActiveProfile().name();
+        ViewModelConfig.load();
+        List<ViewModelProfile> onDisk = ViewModelConfig.profiles().snapshot();
+        String activeOnDisk = ViewModelConfig.profiles().getActiveProfile().name();
+        boolean matches = inMemory.equals(onDisk) && activeInMemory.equals(activeOnDisk);
+
+        int steps = trace.steps().size();
+        System.out.printf(Locale.ROOT, "trace             %s%n", tracePath != null ? tracePath : "built-in session");
+        System.out.printf(Locale.ROOT, "storage           %s, %d profiles%n", System.getProperty("viewmodel.storage", "sharded"), profileCount);
+        System.out.printf(Locale.ROOT, "steps             %d (%d slider drags)%n", steps, drags);
+        System.out.printf(
+            Locale.ROOT,
+            "saves             %d requested, %d performed, %d skipped as unchanged, %d coalesced%n",
+            requested,
+            performed,
+            skipped,
+            requested - performed - skipped
+        );
+        System.out.printf(
+            Locale.ROOT,
+            "disk writes       %d (%.2f per drag), %d identical files skipped%n",
+            files,
+            drags == 0 ? 0.0 : (double) files / drags,
+            filesSkipped
+        );
+        System.out.printf(Locale.ROOT, "bytes written     %d%n", bytes);
+        System.out.printf(
+            Locale.ROOT,
+            "calling thread    %.3f ms total, p50 %d ns, p99 %d ns, max %d ns per step%n",
+            busyNanos / 1e6,
+            latency.percentile(0.50),
+            latency.percentile(0.99),
+            latency.max()
+        );
+        System.out.printf(Locale.ROOT, "final flush       %.3f ms%n", flushNanos / 1e6);
+        System.out.printf(Locale.ROOT, "allocated         %d bytes on the calling thread (%d per step)%n", allocated, steps == 0 ? 0 : allocated / steps);
+        System.out.printf(Locale.ROOT, "wall time         %.1f ms%n", wallNanos / 1e6);
+        System.out.printf(
+            Locale.ROOT,
+            "persisted state   %s: %d profiles, active \"%s\"%n",
+            matches ? "matches memory" : "DIFFERS from memory",
+            onDisk.size(),
+            activeOnDisk
+        );
+        ViewModelConfig.shutdown();
+        System.exit(matches ? 0 : 1);
+    }
+
+    /**
+     * A short editing session at 60 fps input: a drag on every slider, both toggles, an off hand drag,
+     * and a create, rename, switch and delete. Creating and renaming flush first, like the name prompt
+     * covering the screen does.
+     */
+    static InteractionTrace builtInSession() {
+        InteractionTrace trace = new InteractionTrace();
+        for (ProfileEditor.Slider slider : ProfileEditor.Slider.values()) {
+            drag(trace, slider.key(), 0.2f, 1.6f);
+        }
+        trace.add(new InteractionTrace.Step(500, InteractionTrace.OP_TOGGLE, "noSwing", null, true, null));
+        trace.add(new InteractionTrace.Step(300, InteractionTrace.OP_TOGGLE, "scaleSwing", null, true, null));
+        trace.add(new InteractionTrace.Step(300, InteractionTrace.OP_HAND, null, null, null, null));
+        drag(trace, "posX", -4.0f, 4.0f);
+        drag(trace, "yaw", 0.0f, 45.0f);
+        trace.add(new InteractionTrace.Step(500, InteractionTrace.OP_MIRROR, null, null, null, null));
+        trace.add(new InteractionTrace.Step(300, InteractionTrace.OP_HAND, null, null, null, null));
+        trace.add(new InteractionTrace.Step(500, InteractionTrace.OP_FLUSH, null, null, null, null));
+        trace.add(new InteractionTrace.Step(1500, InteractionTrace.OP_CREATE, "Replay", null, null, null));
+        drag(trace, "size", 1.0f, 0.7f);
+        trace.add(new InteractionTrace.Step(500, InteractionTrace.OP_FLUSH, null, null, null, null));
+        trace.add(new InteractionTrace.Step(1500, InteractionTrace.OP_RENAME, "Replay Renamed", null, null, null));
+        trace.add(new InteractionTrace.Step(800, InteractionTrace.OP_SELECT, null, null, null, 0));
+        trace.add(new InteractionTrace.Step(800, InteractionTrace.OP_RESET, null, null, null, null));
+        trace.add(new InteractionTrace.Step(800, InteractionTrace.OP_SELECT, null, null, null, 3));
+        trace.add(new InteractionTrace.Step(800, InteractionTrace.OP_DELETE, null, null, null, null));
+        trace.add(new InteractionTrace.Step(1000, InteractionTrace.OP_FLUSH, null, null, null, null));
+        return trace;
+    }
+
+    private static void drag(InteractionTrace trace, String slider, float from, float to) {
+        int frames = 60;
+        for (int i = 0; i <= frames; i++) {
+            float value = from + (to - from) * i / frames;
+            trace.add(new InteractionTrace.Step(i == 0 ? 600 : 16, InteractionTrace.OP_SET, slider, value, null, null));
+        }
+    }
+}
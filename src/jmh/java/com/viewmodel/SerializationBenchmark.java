@@ -0,0 +1,73 @@
+package com.viewmodel;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writing and reading the whole profile library as the single-file JSON format (exports and the legacy
+ * config) and as the binary snapshot. Run with the gc profiler (the default for this build) to compare
+ * allocation per load as well as time.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerializationBenchmark {
+    @Param({"1", "10", "1000", "100000"})
+    public int profiles;
+
+    private List<ViewModelProfile> library;
+    private Path jsonFile;
+    private Path binaryFile;
+    private Path scratchJson;
+    private Path scratchBinary;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        Path dir = BenchmarkSupport.useTempConfigDir().resolve("serialization");
+        library = BenchmarkSupport.profiles(profiles);
+        jsonFile = dir.resolve("library.json");
+        binaryFile = dir.resolve("library.bin");
+        scratchJson = dir.resolve("scratch.json");
+        scratchBinary = dir.resolve("scratch.bin");
+        ViewModelConfig.writeJson(jsonFile, library, "Profile 1");
+        ProfileBinaryStore.write(binaryFile, library, "Profile 1", 0L);
+    }
+
+    @Benchmark
+    public void jsonWrite() throws IOException {
+        ViewModelConfig.writeJson(scratchJson, library, "Profile 1");
+    }
+
+    @Benchmark
+    public ProfileJournal.Model jsonRead() throws IOException {
+        return ViewModelConfig.readJson(jsonFile);
+    }
+
+    @Benchmark
+    public void binaryWrite() throws IOException {
+        ProfileBinaryStore.write(scratchBinary, library, "Profile 1", 0L);
+    }
+
+    @Benchmark
+    public ProfileBinaryStore.Snapshot binaryRead() throws IOException {
+        return ProfileBinaryStore.read(binaryFile);
+    }
+}
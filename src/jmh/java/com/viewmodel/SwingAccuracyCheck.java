@@ -0,0 +1,133 @@
+package com.viewmodel;
+
+import net.minecraft.util.math.MathHelper;
+
+import java.util.Locale;
+
+/**
+ * Sweeps {@code swingProgress} over [0, 1] and compares every {@link SwingCurves} column with the swing math
+ * the hook evaluated before the tables, for no swing and for scale swing at several sizes. For scale swing
+ * the offset columns are the combined translate: vanilla's offset taken back out plus the scaled one.
+ * <p>
+ * Each column has to stay within the interpolation error documented on {@link SwingCurves} of the exact
+ * curve, and within that plus the step of {@code MathHelper.sin}'s own lookup table of the vanilla
+ * {@code MathHelper} math. Exits with status 1 if any column is outside its bound.
+ * Run with {@code ./gradlew checkSwingAccuracy}.
+ */
+public final class SwingAccuracyCheck {
+    private static final int STEPS = 1_000_000;
+    // Documented in SwingCurves for the default resolution.
+    private static final double OFFSET_ERROR = 2.0e-5;
+    private static final double ROTATION_ERROR = 0.004;
+    // MathHelper.sin truncates its argument to a 65536-entry table, so vanilla itself is off the exact curve
+    // by up to one table step times the curve's amplitude.
+    private static final double SIN_TABLE_STEP = 2.0 * Math.PI / 65536.0;
+    private static final String[] COLUMNS = {"x offset", "y offset", "z offset", "yaw", "roll", "pitch"};
+
+    private SwingAccuracyCheck() {}
+
+    public static void main(String[] args) {
+        boolean failed = check("no swing", true, 1.0f);
+        for (float size : new float[] {0.25f, 0.8f, 1.0f, 1.5f, 2.5f, -0.6f}) {
+            failed |= check(String.format(Locale.ROOT, "scale swing %.2f", size), false, size);
+        }
+        System.exit(failed ? 1 : 0);
+    }
+
+    private static boolean check(String label, boolean noSwing, float size) {
+        SwingCurves curves = SwingCurves.forMode(null, noSwing, !noSwing, size);
+        double[] exact = new double[COLUMNS.length];
+        double[] vanilla = new double[COLUMNS.length];
+        double[] exactError = new double[COLUMNS.length];
+        double[] vanillaError = new double[COLUMNS.length];
+        for (int step = 0; step <= STEPS; step++) {
+            float swingProgress = (float) step / STEPS;
+            exact(exact, swingProgress, noSwing, size);
+            vanilla(vanilla, swingProgress, noSwing, size);
+            for (int column = 0; column < COLUMNS.length; column++) {
+                double table = curves.value(column, swingProgress);
+                exactError[column] = Math.max(exactError[column], Math.abs(table - exact[column]));
+                vanillaError[column] = Math.max(vanillaError[column], Math.abs(table - vanilla[column]));
+            }
+        }
+
+        boolean failed = false;
+        double[] amplitude = amplitudes(noSwing, size);
+        for (int column = 0; column < COLUMNS.length; column++) {
+            boolean offset = column < 3;
+            double bound = offset
+                ? OFFSET_ERROR * (noSwing ? 1.0 : Math.abs(size - 1.0f))
+                : ROTATION_ERROR * (noSwing ? 1.0 : Math.abs(size));
+            double vanillaBound = bound + amplitude[column] * SIN_TABLE_STEP;
+            boolean ok = exactError[column] <= bound && vanillaError[column] <= vanillaBound;
+            failed |= !ok;
+            System.out.printf(
+                Locale.ROOT,
+                "%-17s %-8s %s: %.3e from exact (bound %.3e), %.3e from MathHelper (bound %.3e)%n",
+                label,
+                COLUMNS[column],
+                ok ? "ok" : "FAIL",
+                exactError[column],
+                bound,
+                vanillaError[column],
+                vanillaBound
+            );
+        }
+        return failed;
+    }
+
+    /**
+     * The curves in double precision, as {@link SwingCurves} samples them.
+     */
+    private static void exact(double[] out, float swingProgress, boolean noSwing, float size) {
+        double u = Math.sqrt(swingProgress);
+        double baseF = -0.4 * Math.sin(u * Math.PI);
+        double baseG = 0.2 * Math.sin(u * Math.PI * 2.0);
+        double baseH = -0.2 * Math.sin(swingProgress * Math.PI);
+        double sinSq = Math.sin((double) swingProgress * swingProgress * Math.PI);
+        double sinSqrt = Math.sin(u * Math.PI);
+        if (noSwing) {
+            set(out, -baseF, -baseG, -baseH, 0.0, sinSqrt * 20.0, sinSqrt * -40.0);
+        } else {
+            set(out, baseF * size - baseF, baseG * size - baseG, baseH * size - baseH,
+                sinSq * -20.0 * size, sinSqrt * -20.0 * size, sinSqrt * -80.0 * size);
+        }
+    }
+
+    /**
+     * What the hook computed with {@code MathHelper} before the tables, the two translates of scale swing
+     * summed the way consecutive translates compose.
+     */
+    private static void vanilla(double[] out, float swingProgress, boolean noSwing, float size) {
+        float sqrtProgress = MathHelper.sqrt(swingProgress);
+        float baseF = -0.4F * MathHelper.sin(sqrtProgress * (float) Math.PI);
+        float baseG = 0.2F * MathHelper.sin(sqrtProgress * (float) Math.PI * 2.0F);
+        float baseH = -0.2F * MathHelper.sin(swingProgress * (float) Math.PI);
+        float sinSq = MathHelper.sin(swingProgress * swingProgress * (float) Math.PI);
+        float sinSqrt = MathHelper.sin(sqrtProgress * (float) Math.PI);
+        if (noSwing) {
+            set(out, -baseF, -baseG, -baseH, sinSq * 0.0F, sinSqrt * 20.0F, sinSqrt * -40.0F);
+        } else {
+            set(out, -baseF + baseF * size, -baseG + baseG * size, -baseH + baseH * size,
+                sinSq * -20.0F * size, sinSqrt * -20.0F * size, sinSqrt * -80.0F * size);
+        }
+    }
+
+    private static double[] amplitudes(boolean noSwing, float size) {
+        if (noSwing) {
+            return new double[] {0.4, 0.2, 0.2, 0.0, 20.0, 40.0};
+        }
+        double scale = Math.abs(size);
+        double offset = Math.abs(size - 1.0);
+        return new double[] {0.4 * offset, 0.2 * offset, 0.2 * offset, 20.0 * scale, 20.0 * scale, 80.0 * scale};
+    }
+
+    private static void set(double[] out, double x, double y, double z, double yaw, double roll, double pitch) {
+        out[0] = x;
+        out[1] = y;
+        out[2] = z;
+        out[3] = yaw;
+        out[4] = roll;
+        out[5] = pitch;
+    }
+}
@@ -0,0 +1,94 @@
+package com.viewmodel;
+
+import net.minecraft.client.util.math.MatrixStack;
+import net.minecraft.util.math.MathHelper;
+import net.minecraft.util.math.RotationAxis;
+import org.joml.Quaternionf;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The onApplySwingOffset replacement: lookup tables from {@link SwingCurves} against the direct sqrt/sin math
+ * the hook evaluated before. Progress walks through the whole swing so both paths see every region.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SwingBenchmark {
+    private static final float STEP = 0.0137f;
+
+    @Param({"noSwing", "scaleSwing"})
+    public String mode;
+
+    private final MatrixStack matrices = new MatrixStack();
+    private final Quaternionf scratch = new Quaternionf();
+    private ViewModelRenderState state;
+    private float progress;
+
+    @Setup
+    public void setup() {
+        boolean noSwing = mode.equals("noSwing");
+        state = ViewModelRenderState.of(1L, ViewModelProfile.defaults("Bench").withSize(0.8f)
+            .withNoSwing(noSwing)
+            .withScaleSwing(!noSwing));
+    }
+
+    @Benchmark
+    public void tables(Blackhole blackhole) {
+        matrices.push();
+        state.swing().applyTo(matrices, 1, nextProgress(), scratch);
+        blackhole.consume(matrices.peek().getPositionMatrix().m30());
+        matrices.pop();
+    }
+
+    @Benchmark
+    public void directMath(Blackhole blackhole) {
+        matrices.push();
+        float swingProgress = nextProgress();
+        int dir = 1;
+        float sqrtProgress = MathHelper.sqrt(swingProgress);
+        float baseF = -0.4F * MathHelper.sin(sqrtProgress * (float) Math.PI);
+        float baseG = 0.2F * MathHelper.sin(sqrtProgress * (float) Math.PI * 2.0F);
+        float baseH = -0.2F * MathHelper.sin(swingProgress * (float) Math.PI);
+        matrices.translate(-dir * baseF, -baseG, -baseH);
+
+        float sinSq = MathHelper.sin(swingProgress * swingProgress * (float) Math.PI);
+        float sinSqrt = MathHelper.sin(sqrtProgress * (float) Math.PI);
+        if (state.noSwing()) {
+            matrices.multiply(RotationAxis.POSITIVE_Y.rotationDegrees(dir * (sinSq * 0.0F)));
+            matrices.multiply(RotationAxis.POSITIVE_Z.rotationDegrees(dir * sinSqrt * 20.0F));
+            matrices.multiply(RotationAxis.POSITIVE_X.rotationDegrees(sinSqrt * -40.0F));
+        } else {
+            float scale = state.size();
+            matrices.translate(dir * baseF * scale, baseG * scale, baseH * scale);
+            matrices.multiply(RotationAxis.POSITIVE_Y.rotationDegrees(dir * (sinSq * -20.0F) * scale));
+            matrices.multiply(RotationAxis.POSITIVE_Z.rotationDegrees(dir * sinSqrt * -20.0F * scale));
+            matrices.multiply(RotationAxis.POSITIVE_X.rotationDegrees(sinSqrt * -80.0F * scale));
+        }
+        blackhole.consume(matrices.peek().getPositionMatrix().m30());
+        matrices.pop();
+    }
+
+    private float nextProgress() {
+        progress += STEP;
+        if (progress >= 1.0f) {
+            progress -= 1.0f;
+        }
+        return progress;
+    }
+}
@@ -0,0 +1,72 @@
+package com.viewmodel;
+
+import net.minecraft.client.util.math.MatrixStack;
+import net.minecraft.util.Arm;
+import net.minecraft.util.Hand;
+import net.minecraft.util.math.RotationAxis;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Composing the held item transform into a {@link MatrixStack}: the precomputed matrix the renderItem
+ * redirect uses now against the rotate/scale/translate calls it used to make every frame.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TransformBenchmark {
+    private final MatrixStack matrices = new MatrixStack();
+    private ViewModelRenderState state;
+
+    @Setup
+    public void setup() {
+        state = ViewModelRenderState.of(1L, BenchmarkSupport.profile("Bench", 42));
+    }
+
+    @Benchmark
+    public void precomputed(Blackhole blackhole) {
+        matrices.push();
+        state.transform(Hand.MAIN_HAND, Arm.RIGHT).applyTo(matrices);
+        blackhole.consume(matrices.peek().getPositionMatrix().m30());
+        matrices.pop();
+    }
+
+    @Benchmark
+    public void mirroredOffHand(Blackhole blackhole) {
+        matrices.push();
+        state.transform(Hand.OFF_HAND, Arm.LEFT).applyTo(matrices);
+        blackhole.consume(matrices.peek().getPositionMatrix().m30());
+        matrices.pop();
+    }
+
+    @Benchmark
+    public void composedPerFrame(Blackhole blackhole) {
+        matrices.push();
+        float scale = state.size();
+        matrices.multiply(RotationAxis.POSITIVE_X.rotationDegrees(state.rotationPitch()));
+        matrices.multiply(RotationAxis.POSITIVE_Y.rotationDegrees(state.rotationYaw()));
+        matrices.multiply(RotationAxis.POSITIVE_Z.rotationDegrees(state.rotationRoll()));
+        matrices.scale(scale, scale, scale);
+        matrices.translate(
+            (state.positionX() / 100.0f) / scale,
+            (state.positionY() / 100.0f) / scale,
+            (state.positionZ() / 100.0f) / scale
+        );
+        blackhole.consume(matrices.peek().getPositionMatrix().m30());
+        matrices.pop();
+    }
+}
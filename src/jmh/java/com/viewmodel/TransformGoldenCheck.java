@@ -0,0 +1,123 @@
+package com.viewmodel;
+
+import net.minecraft.client.util.math.MatrixStack;
+import net.minecraft.util.math.RotationAxis;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Checks that {@link ViewModelTransform} leaves a {@link MatrixStack} exactly where the renderer's original
+ * call sequence did: rotate X, Y and Z by the profile's degrees, scale uniformly, then translate by the
+ * offset divided by the scale, each step skipped when it is a no-op. Position and normal matrices are
+ * compared element by element on a stack that already carries the equip offset and a rotation, for a set of
+ * layouts including mirrored, negative and zero sizes. Exits with status 1 on any mismatch.
+ * Run with {@code ./gradlew checkTransform}.
+ */
+public final class TransformGoldenCheck {
+    // Relative to the element's magnitude; folding the steps into one matrix only reassociates float products.
+    private static final float TOLERANCE = 1.0e-5f;
+
+    private static final List<HandTransform> LAYOUTS = List.of(
+        new HandTransform(1.0f, 0.0f, 0.0f, 0.0f, 0.0f, 0.0f, 0.0f),
+        new HandTransform(1.0f, 0.0f, 0.0f, 0.0f, 35.0f, -20.0f, 10.0f),
+        new HandTransform(0.6f, 12.0f, -8.0f, 4.0f, 0.0f, 0.0f, 0.0f),
+        new HandTransform(1.4f, -30.0f, 15.0f, -50.0f, 180.0f, 90.0f, -45.0f),
+        new HandTransform(0.35f, 3.5f, -2.25f, 7.0f, -12.5f, 64.0f, 271.0f),
+        new HandTransform(-0.8f, 10.0f, 5.0f, -5.0f, 20.0f, 0.0f, 0.0f),
+        new HandTransform(-1.0f, 0.0f, 0.0f, 0.0f, 0.0f, 0.0f, 0.0f),
+        new HandTransform(0.0f, 0.0f, 0.0f, 0.0f, 45.0f, 30.0f, 15.0f),
+        new HandTransform(0.0f, 6.0f, -3.0f, 2.0f, 0.0f, 0.0f, 0.0f)
+    );
+
+    private TransformGoldenCheck() {}
+
+    public static void main(String[] args) {
+        int failures = 0;
+        int checked = 0;
+        for (HandTransform layout : LAYOUTS) {
+            for (HandTransform hand : List.of(layout, layout.mirrored())) {
+                checked++;
+                MatrixStack expected = startingStack();
+                reference(expected, hand);
+                MatrixStack actual = startingStack();
+                new ViewModelTransform(hand).applyTo(actual);
+
+                String positionMismatch = compare(
+                    expected.peek().getPositionMatrix().get(new float[16]),
+                    actual.peek().getPositionMatrix().get(new float[16])
+                );
+                String normalMismatch = compare(
+                    expected.peek().getNormalMatrix().get(new float[9]),
+                    actual.peek().getNormalMatrix().get(new float[9])
+                );
+                if (positionMismatch != null || normalMismatch != null) {
+                    failures++;
+                    System.out.println("FAIL " + hand);
+                    if (positionMismatch != null) {
+                        System.out.println("  position " + positionMismatch);
+                    }
+                    if (normalMismatch != null) {
+                        System.out.println("  normal   " + normalMismatch);
+                    }
+                }
+            }
+        }
+        System.out.printf(Locale.ROOT, "%d of %d layouts match the MatrixStack call sequence%n", checked - failures, checked);
+        System.exit(failures == 0 ? 0 : 1);
+    }
+
+    /**
+     * The hook's state before the transform: the equip offset for the right arm and a swing-like rotation,
+     * so the comparison does not start from identity.
+     */
+    private static MatrixStack startingStack() {
+        MatrixStack matrices = new MatrixStack();
+        matrices.translate(0.56f, -0.52f, -0.72f);
+        matrices.multiply(RotationAxis.POSITIVE_Y.rotationDegrees(-12.0f));
+        matrices.multiply(RotationAxis.POSITIVE_X.rotationDegrees(-30.0f));
+        return matrices;
+    }
+
+    /**
+     * The renderer's call sequence before the transform was precomputed.
+     */
+    private static void reference(MatrixStack matrices, HandTransform hand) {
+        float rotX = hand.rotationPitch();
+        float rotY = hand.rotationYaw();
+        float rotZ = hand.rotationRoll();
+        if (rotX != 0 || rotY != 0 || rotZ != 0) {
+            matrices.multiply(RotationAxis.POSITIVE_X.rotationDegrees(rotX));
+            matrices.multiply(RotationAxis.POSITIVE_Y.rotationDegrees(rotY));
+            matrices.multiply(RotationAxis.POSITIVE_Z.rotationDegrees(rotZ));
+        }
+        float scale = hand.size();
+        if (scale != 1.0f) {
+            matrices.scale(scale, scale, scale);
+        }
+        float x = hand.positionX();
+        float y = hand.positionY();
+        float z = hand.positionZ();
+        if (x != 0 || y != 0 || z != 0) {
+            matrices.translate((x / 100.0f) / scale, (y / 100.0f) / scale, (z / 100.0f) / scale);
+        }
+    }
+
+    /**
+     * Returns a description of the first differing element, or {@code null}. A zero size with an offset
+     * divides by zero in both sequences; such elements only have to be non-finite on both sides.
+     */
+    private static String compare(float[] expected, float[] actual) {
+        for (int i = 0; i < expected.length; i++) {
+            float want = expected[i];
+            float got = actual[i];
+            boolean matches = Float.isFinite(want)
+                ? Float.isFinite(got) && Math.abs(want - got) <= TOLERANCE * Math.max(1.0f, Math.abs(want))
+                : !Float.isFinite(got);
+            if (!matches) {
+                return String.format(Locale.ROOT, "element %d: expected %s, got %s", i, want, got);
+            }
+        }
+        return null;
+    }
+}
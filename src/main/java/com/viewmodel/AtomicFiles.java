@@ -0,0 +1,287 @@
+package com.viewmodel;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Crash-safe file replacement: content goes to a temp file, is fsynced, and is then moved over the target.
+ * {@link #write} also keeps the previous target as a {@code .bak} generation so a torn or corrupted file
+ * can be recovered by {@link #readNewest}; the backup is linked before the move, so the target never goes
+ * missing in between.
+ * <p>
+ * Every replacement is fingerprinted. Content is serialized in memory first; when it hashes the same as the
+ * last content this class put at the target, and the file is still as it was left, nothing is written at
+ * all: no temp file, fsync, rename or backup rotation. Fingerprints only cover writes since startup.
+ */
+final class AtomicFiles {
+    private static final Logger LOGGER = LoggerFactory.getLogger("ViewmodelConfig");
+    private static final String TEMP_SUFFIX = ".tmp";
+    private static final String BACKUP_SUFFIX = ".bak";
+    private static final String CORRUPT_SUFFIX = ".corrupt";
+    private static final AtomicLong BYTES_WRITTEN = new AtomicLong();
+    private static final AtomicLong FILES_WRITTEN = new AtomicLong();
+    private static final AtomicLong FILES_SKIPPED = new AtomicLong();
+    private static final Map<Path, Fingerprint> FINGERPRINTS = new ConcurrentHashMap<>();
+
+    private AtomicFiles() {}
+
+    /**
+     * Returns {@code false} if the content matched what is already on disk and nothing was replaced.
+     */
+    static boolean write(Path target, Content content) throws IOException {
+        return replace(target, content, true);
+    }
+
+    /**
+     * Same guarantees as {@link #write} without the backup generation, for small files that are cheap to rebuild.
+     */
+    static boolean replace(Path target, Content content) throws IOException {
+        return replace(target, content, false);
+    }
+
+    /**
+     * Reads the newest generation that parses, or returns {@code null} if none does. Never more than two
+     * candidates are tried, so recovery costs at most one extra read regardless of how many writes happened
+     * before a crash. An unreadable current file is moved aside so the next write cannot rotate it over the
+     * last good backup.
+     */
+    static <T> T readNewest(Path target, Parser<T> parser) {
+        boolean anyFound = false;
+        for (Path candidate : List.of(target, backupOf(target))) {
+            if (Files.notExists(candidate)) {
+                continue;
+            }
+            anyFound = true;
+            try {
+                T value = parser.parse(candidate);
+                if (!candidate.equals(target)) {
+                    LOGGER.warn("Recovered {} from its previous generation", target.getFileName());
+                }
+                return value;
+            } catch (Exception e) {
+                LOGGER.error("Failed to read {}", candidate.getFileName(), e);
+                if (candidate.equals(target)) {
+                    quarantine(candidate);
+                }
+            }
+        }
+
+        if (anyFound) {
+            LOGGER.error("No readable generation of {}", target.getFileName());
+        }
+        return null;
+    }
+
+    /**
+     * Bytes written through this class and {@link #countWritten} since startup.
+     */
+    static long bytesWritten() {
+        return BYTES_WRITTEN.get();
+    }
+
+    /**
+     * File replacements and appends through this class and {@link #countWritten} since startup; every one of
+     * them ends in an fsync.
+     */
+    static long filesWritten() {
+        return FILES_WRITTEN.get();
+    }
+
+    /**
+     * Replacements dropped since startup because the target already held the same content.
+     */
+    static long filesSkipped() {
+        return FILES_SKIPPED.get();
+    }
+
+    /**
+     * Counts one write by a writer that does not go through this class, such as a journal append.
+     */
+    static void countWritten(long bytes) {
+        BYTES_WRITTEN.addAndGet(bytes);
+        FILES_WRITTEN.incrementAndGet();
+    }
+
+    static Path backupOf(Path target) {
+        return sibling(target, BACKUP_SUFFIX);
+    }
+
+    static boolean isScratchFile(Path file) {
+        String name = file.getFileName().toString();
+        return name.endsWith(TEMP_SUFFIX) || name.endsWith(BACKUP_SUFFIX) || name.endsWith(CORRUPT_SUFFIX);
+    }
+
+    private static boolean replace(Path target, Content content, boolean keepBackup) throws IOException {
+        Path parent = Objects.requireNonNull(target.getParent());
+        Files.createDirectories(parent);
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        content.write(buffer);
+        byte[] bytes = buffer.toByteArray();
+        byte[] hash = newDigest().digest(bytes);
+        if (matchesLastWrite(target, hash)) {
+            FILES_SKIPPED.incrementAndGet();
+            return false;
+        }
+
+        Path temp = sibling(target, TEMP_SUFFIX);
+        try (FileChannel channel = FileChannel.open(
+            temp,
+            StandardOpenOption.CREATE,
+            StandardOpenOption.TRUNCATE_EXISTING,
+            StandardOpenOption.WRITE
+        )) {
+            ByteBuffer remaining = ByteBuffer.wrap(bytes);
+            while (remaining.hasRemaining()) {
+                channel.write(remaining);
+            }
+            channel.force(true);
+        }
+        BYTES_WRITTEN.addAndGet(bytes.length);
+        FILES_WRITTEN.incrementAndGet();
+
+        if (keepBackup && Files.exists(target)) {
+            keepAsBackup(target);
+        }
+        move(temp, target);
+        syncDirectory(parent);
+        remember(target, hash);
+        return true;
+    }
+
+    /**
+     * Whether {@code target} is still exactly as this class last left it, so a change event for it was
+     * caused by the mod itself rather than by someone editing the file.
+     */
+    static boolean isOwnWrite(Path target) {
+        Fingerprint last = FINGERPRINTS.get(target);
+        return last != null && untouchedSince(target, last);
+    }
+
+    /**
+     * Fingerprints a file someone else wrote as if it had been written here, so writing the same content back
+     * is skipped and its change event reads as an own write.
+     */
+    static void adopt(Path target) {
+        try {
+            remember(target, newDigest().digest(Files.readAllBytes(target)));
+        } catch (IOException e) {
+            FINGERPRINTS.remove(target);
+        }
+    }
+
+    /**
+     * A file touched by anything else since the last write here is never treated as unchanged.
+     */
+    private static boolean matchesLastWrite(Path target, byte[] hash) {
+        Fingerprint last = FINGERPRINTS.get(target);
+        return last != null && Arrays.equals(last.hash(), hash) && untouchedSince(target, last);
+    }
+
+    /**
+     * Size and modification time rule most changes out cheaply; a file that matches both is read and hashed,
+     * since a same-sized write by another instance can land within the same timestamp tick.
+     */
+    private static boolean untouchedSince(Path target, Fingerprint last) {
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(target, BasicFileAttributes.class);
+            if (attributes.size() != last.size() || !attributes.lastModifiedTime().equals(last.modified())) {
+                return false;
+            }
+            return Arrays.equals(newDigest().digest(Files.readAllBytes(target)), last.hash());
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private static void remember(Path target, byte[] hash) {
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(target, BasicFileAttributes.class);
+            FINGERPRINTS.put(target, new Fingerprint(hash, attributes.size(), attributes.lastModifiedTime()));
+        } catch (IOException e) {
+            FINGERPRINTS.remove(target);
+        }
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is required on every Java platform", e);
+        }
+    }
+
+    private static void quarantine(Path file) {
+        try {
+            Files.move(file, sibling(file, CORRUPT_SUFFIX), StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            LOGGER.warn("Unable to move aside unreadable {}", file.getFileName(), e);
+        }
+    }
+
+    private static Path sibling(Path file, String suffix) {
+        return file.resolveSibling(file.getFileName() + suffix);
+    }
+
+    /**
+     * Links or copies the current target to its backup instead of moving it, so there is no moment without
+     * a target: the move of the temp file over it is then the only step that changes what it holds.
+     */
+    private static void keepAsBackup(Path target) throws IOException {
+        Path backup = backupOf(target);
+        Files.deleteIfExists(backup);
+        try {
+            Files.createLink(backup, target);
+        } catch (IOException | UnsupportedOperationException e) {
+            Files.copy(target, backup, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static void move(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static void syncDirectory(Path directory) {
+        // Persists the rename itself; not every platform allows opening a directory, so this is best effort.
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException | UnsupportedOperationException ignored) {
+        }
+    }
+
+    private record Fingerprint(byte[] hash, long size, FileTime modified) {}
+
+    @FunctionalInterface
+    interface Content {
+        void write(OutputStream out) throws IOException;
+    }
+
+    @FunctionalInterface
+    interface Parser<T> {
+        T parse(Path file) throws Exception;
+    }
+}
@@ -0,0 +1,162 @@
+package com.viewmodel;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The one thread that touches config files. Tasks run one at a time in submission order, so disk state is
+ * never read and written concurrently and no lock is needed around it.
+ * <p>
+ * At most {@link #QUEUE_CAPACITY} tasks wait at once; beyond that {@code run}/{@code call} block the
+ * submitting thread until the writer catches up. A keyed task that is still waiting is replaced by a newer
+ * one with the same key, and both callers get the newer one's handle. Anything submitted from the I/O
+ * thread itself runs inline.
+ */
+final class ConfigIo {
+    static final int QUEUE_CAPACITY = 64;
+
+    private final ScheduledThreadPoolExecutor executor;
+    private final Semaphore slots = new Semaphore(QUEUE_CAPACITY);
+    private final Map<String, Keyed> waiting = new HashMap<>();
+    private volatile Thread thread;
+
+    ConfigIo(String threadName) {
+        this.executor = new ScheduledThreadPoolExecutor(1, task -> {
+            Thread created = new Thread(task, threadName);
+            created.setDaemon(true);
+            this.thread = created;
+            return created;
+        });
+        this.executor.setRemoveOnCancelPolicy(true);
+    }
+
+    boolean onIoThread() {
+        return Thread.currentThread() == thread;
+    }
+
+    <T> CompletableFuture<T> call(IoTask<T> task) {
+        if (onIoThread()) {
+            return completeWith(task);
+        }
+        CompletableFuture<T> future = new CompletableFuture<>();
+        enqueue(() -> future.complete(task.call()), future);
+        return future;
+    }
+
+    CompletableFuture<Void> run(IoAction action) {
+        return call(() -> {
+            action.run();
+            return null;
+        });
+    }
+
+    /**
+     * Runs {@code action} after everything queued so far, unless an earlier {@code key} task is still
+     * waiting, in which case that one is superseded.
+     */
+    CompletableFuture<Void> run(String key, IoAction action) {
+        if (onIoThread()) {
+            return completeWith(() -> {
+                action.run();
+                return null;
+            });
+        }
+        Keyed keyed;
+        synchronized (waiting) {
+            Keyed existing = waiting.get(key);
+            if (existing != null) {
+                existing.action = action;
+                return existing.future;
+            }
+            keyed = new Keyed(action);
+            waiting.put(key, keyed);
+        }
+        enqueue(() -> {
+            IoAction latest;
+            synchronized (waiting) {
+                waiting.remove(key);
+                latest = keyed.action;
+            }
+            latest.run();
+            keyed.future.complete(null);
+        }, keyed.future);
+        return keyed.future;
+    }
+
+    /**
+     * Runs {@code task} on the I/O thread after {@code delay}. Timers do not count against the queue.
+     */
+    ScheduledFuture<?> schedule(Runnable task, long delay, TimeUnit unit) {
+        return executor.schedule(task, delay, unit);
+    }
+
+    /**
+     * Waits until every task submitted before this call has finished.
+     */
+    void awaitIdle() {
+        if (!onIoThread()) {
+            run(() -> {}).join();
+        }
+    }
+
+    /**
+     * Waits for a handle and rethrows an {@link IOException} from the task as itself.
+     */
+    static <T> T await(CompletableFuture<T> future) throws IOException {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof IOException io) {
+                throw io;
+            }
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw e;
+        }
+    }
+
+    private void enqueue(IoAction body, CompletableFuture<?> future) {
+        slots.acquireUninterruptibly();
+        executor.execute(() -> {
+            slots.release();
+            try {
+                body.run();
+            } catch (Throwable t) {
+                future.completeExceptionally(t);
+            }
+        });
+    }
+
+    private static <T> CompletableFuture<T> completeWith(IoTask<T> task) {
+        try {
+            return CompletableFuture.completedFuture(task.call());
+        } catch (IOException | RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    interface IoTask<T> {
+        T call() throws IOException;
+    }
+
+    interface IoAction {
+        void run() throws IOException;
+    }
+
+    private static final class Keyed {
+        final CompletableFuture<Void> future = new CompletableFuture<>();
+        IoAction action;
+
+        Keyed(IoAction action) {
+            this.action = action;
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.viewmodel;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Objects;
+
+/**
+ * Advisory lock on a file in the config directory, held while this game instance reads or writes profile
+ * files so another instance sharing the directory never sees a half-applied batch. Reentrant, and only ever
+ * taken on the {@link ConfigIo} thread: the JVM hands out one lock per file per process.
+ * <p>
+ * Where the file system cannot lock (some network shares), config I/O carries on unlocked after a warning.
+ */
+final class ConfigLock {
+    private static final Logger LOGGER = LoggerFactory.getLogger("ViewmodelConfig");
+
+    private final Path path;
+    private FileChannel channel;
+    private FileLock lock;
+    private int depth;
+    private boolean unsupported;
+
+    ConfigLock(Path path) {
+        this.path = path;
+    }
+
+    void lock() {
+        if (depth++ > 0 || unsupported) {
+            return;
+        }
+        try {
+            if (channel == null) {
+                Files.createDirectories(Objects.requireNonNull(path.getParent()));
+                channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+            }
+            lock = channel.lock();
+        } catch (IOException | UnsupportedOperationException e) {
+            unsupported = true;
+            LOGGER.warn("Unable to lock {}; other game instances sharing this folder may overwrite edits", path, e);
+        }
+    }
+
+    void unlock() {
+        if (depth == 0 || --depth > 0 || lock == null) {
+            return;
+        }
+        try {
+            lock.release();
+        } catch (IOException e) {
+            LOGGER.warn("Unable to release {}", path, e);
+        }
+        lock = null;
+    }
+}
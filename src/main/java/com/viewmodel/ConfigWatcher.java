@@ -0,0 +1,133 @@
+package com.viewmodel;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Watches config directories for files created or modified outside this instance of the mod. Events are collected until
+ * the directory has been quiet for the debounce window, so an editor saving in several steps or a batch of
+ * dropped files is handled once, and the changed files are then handed over on the {@link ConfigIo} thread.
+ * Telling the mod's own writes apart is up to the receiver.
+ */
+final class ConfigWatcher {
+    private static final Logger LOGGER = LoggerFactory.getLogger("ViewmodelConfig");
+
+    private final ConfigIo io;
+    private final long debounceNanos;
+    private final Consumer<Set<Path>> onChange;
+
+    private WatchService service;
+    private Set<Path> changed = new LinkedHashSet<>();
+    private long lastEventNanos;
+    private ScheduledFuture<?> pendingTask;
+
+    ConfigWatcher(ConfigIo io, long debounceMillis, Consumer<Set<Path>> onChange) {
+        this.io = io;
+        this.debounceNanos = TimeUnit.MILLISECONDS.toNanos(debounceMillis);
+        this.onChange = onChange;
+    }
+
+    synchronized void start(List<Path> directories) throws IOException {
+        if (service != null) {
+            return;
+        }
+        this.service = FileSystems.getDefault().newWatchService();
+        for (Path directory : directories) {
+            Files.createDirectories(directory);
+            directory.register(service, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        }
+        Thread thread = new Thread(this::poll, "Viewmodel config watcher");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    synchronized void close() {
+        if (pendingTask != null) {
+            pendingTask.cancel(false);
+            pendingTask = null;
+        }
+        if (service == null) {
+            return;
+        }
+        try {
+            service.close();
+        } catch (IOException e) {
+            LOGGER.warn("Unable to close viewmodel config watcher", e);
+        }
+    }
+
+    private void poll() {
+        WatchService watching;
+        synchronized (this) {
+            watching = service;
+        }
+        try {
+            while (true) {
+                WatchKey key = watching.take();
+                Path watched = (Path) key.watchable();
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                        // Events were lost, so every file may have changed.
+                        markAll(watched);
+                    } else if (event.context() instanceof Path file) {
+                        mark(watched.resolve(file));
+                    }
+                }
+                if (!key.reset()) {
+                    LOGGER.warn("Stopped watching {}: the directory is no longer accessible", watched);
+                    return;
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // Shut down.
+        }
+    }
+
+    private void markAll(Path watched) {
+        try (Stream<Path> files = Files.list(watched)) {
+            files.forEach(this::mark);
+        } catch (IOException e) {
+            LOGGER.warn("Unable to list {} after lost watch events", watched, e);
+        }
+    }
+
+    private synchronized void mark(Path file) {
+        changed.add(file);
+        lastEventNanos = System.nanoTime();
+        if (pendingTask == null) {
+            pendingTask = io.schedule(this::onTimer, debounceNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void onTimer() {
+        Set<Path> batch;
+        synchronized (this) {
+            pendingTask = null;
+            long wait = lastEventNanos + debounceNanos - System.nanoTime();
+            if (wait > 0) {
+                pendingTask = io.schedule(this::onTimer, wait, TimeUnit.NANOSECONDS);
+                return;
+            }
+            batch = changed;
+            changed = new LinkedHashSet<>();
+        }
+        onChange.accept(batch);
+    }
+}
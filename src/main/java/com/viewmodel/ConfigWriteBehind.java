@@ -0,0 +1,114 @@
+package com.viewmodel;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Write-behind scheduler for config persistence.
+ * Callers only mark the state dirty; a burst of edits collapses into a single write once it goes quiet
+ * for the idle window, or once the oldest unsaved edit reaches the max delay. Writes run on the
+ * {@link ConfigIo} thread, and every caller gets a handle that completes when the write carrying its
+ * change is on disk. The writer reports whether anything actually changed on disk, so writes whose content
+ * was already there are counted as skipped rather than performed.
+ */
+final class ConfigWriteBehind {
+    private static final String WRITE_KEY = "write-behind";
+
+    private final ConfigIo io;
+    private final BooleanSupplier writer;
+    private final long idleNanos;
+    private final long maxDelayNanos;
+
+    private boolean dirty;
+    private long firstDirtyNanos;
+    private long lastDirtyNanos;
+    private ScheduledFuture<?> pendingTask;
+    private CompletableFuture<Void> nextWrite = new CompletableFuture<>();
+    private long requestedWrites;
+    private long performedWrites;
+    private long skippedWrites;
+
+    ConfigWriteBehind(ConfigIo io, long idleMillis, long maxDelayMillis, BooleanSupplier writer) {
+        this.io = io;
+        this.writer = writer;
+        this.idleNanos = TimeUnit.MILLISECONDS.toNanos(idleMillis);
+        this.maxDelayNanos = TimeUnit.MILLISECONDS.toNanos(maxDelayMillis);
+    }
+
+    synchronized CompletableFuture<Void> markDirty() {
+        requestedWrites++;
+        long now = System.nanoTime();
+        if (!dirty) {
+            dirty = true;
+            firstDirtyNanos = now;
+        }
+        lastDirtyNanos = now;
+        if (pendingTask == null) {
+            pendingTask = io.schedule(this::onTimer, idleNanos, TimeUnit.NANOSECONDS);
+        }
+        return nextWrite;
+    }
+
+    /**
+     * Queues a write of anything still pending ahead of the timers. The handle completes once everything
+     * marked dirty before the call is on disk.
+     */
+    CompletableFuture<Void> flush() {
+        return io.run(WRITE_KEY, this::writeIfDirty);
+    }
+
+    synchronized ViewModelConfig.SaveStats stats() {
+        return new ViewModelConfig.SaveStats(requestedWrites, performedWrites, skippedWrites);
+    }
+
+    private void onTimer() {
+        synchronized (this) {
+            pendingTask = null;
+            if (!dirty) {
+                return;
+            }
+            long now = System.nanoTime();
+            long wait = Math.min(lastDirtyNanos + idleNanos - now, firstDirtyNanos + maxDelayNanos - now);
+            if (wait > 0) {
+                pendingTask = io.schedule(this::onTimer, wait, TimeUnit.NANOSECONDS);
+                return;
+            }
+        }
+        writeIfDirty();
+    }
+
+    /**
+     * Runs on the I/O thread only.
+     */
+    private void writeIfDirty() {
+        CompletableFuture<Void> written;
+        synchronized (this) {
+            if (!dirty) {
+                return;
+            }
+            dirty = false;
+            if (pendingTask != null) {
+                pendingTask.cancel(false);
+                pendingTask = null;
+            }
+            written = nextWrite;
+            nextWrite = new CompletableFuture<>();
+        }
+        try {
+            boolean changed = writer.getAsBoolean();
+            synchronized (this) {
+                if (changed) {
+                    performedWrites++;
+                } else {
+                    skippedWrites++;
+                }
+            }
+            written.complete(null);
+        } catch (RuntimeException e) {
+            written.completeExceptionally(e);
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.viewmodel;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.FlightRecorderListener;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Recording;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+import net.minecraft.util.math.MathHelper;
+
+/**
+ * Java Flight Recorder events, so config I/O and render hook costs line up with GC and frame spikes in the
+ * same recording. Every event is disabled by default; turn them on in the recording settings, e.g.
+ * {@code jfr configure +viewmodel.ConfigSave#enabled=true +viewmodel.RenderHook#enabled=true}.
+ * <p>
+ * A disabled event costs a {@code commit()} that returns at once. Render hooks are cheaper still: they are
+ * only timed while a recording with {@code viewmodel.RenderHook} enabled is running, and then only every
+ * {@code -Dviewmodel.jfrSampleEvery} (default 32) calls per hook are committed.
+ */
+final class FlightEvents {
+    static final int SAMPLE_EVERY = MathHelper.clamp(Integer.getInteger("viewmodel.jfrSampleEvery", 32), 1, 1 << 20);
+
+    private FlightEvents() {}
+
+    /**
+     * Follows recordings starting and stopping so render hooks are only timed while someone records them.
+     */
+    static void register() {
+        EventType renderHook = EventType.getEventType(RenderHook.class);
+        FlightRecorder.addListener(new FlightRecorderListener() {
+            @Override
+            public void recordingStateChanged(Recording recording) {
+                HookTimings.setFlightRecording(renderHook.isEnabled());
+            }
+        });
+        HookTimings.setFlightRecording(renderHook.isEnabled());
+    }
+
+    static ProfileOperation beginProfileOperation(String operation) {
+        ProfileOperation event = new ProfileOperation();
+        event.operation = operation;
+        event.begin();
+        return event;
+    }
+
+    static void renderHook(String hook, long nanos) {
+        RenderHook event = new RenderHook();
+        event.hook = hook;
+        event.hookDuration = nanos;
+        event.commit();
+    }
+
+    @Name("viewmodel.ConfigLoad")
+    @Label("Viewmodel Config Load")
+    @Category("Viewmodel")
+    @Enabled(false)
+    @StackTrace(false)
+    static final class ConfigLoad extends Event {
+        @Label("Storage")
+        String storage;
+
+        @Label("Profile Count")
+        int profileCount;
+
+        @Label("Migrated")
+        @Description("The library was created from an older config layout or from defaults")
+        boolean migrated;
+    }
+
+    @Name("viewmodel.ConfigSave")
+    @Label("Viewmodel Config Save")
+    @Category("Viewmodel")
+    @Enabled(false)
+    @StackTrace(false)
+    static final class ConfigSave extends Event {
+        @Label("Bytes Written")
+        @DataAmount
+        long bytesWritten;
+
+        @Label("Profile Count")
+        @Description("Profiles written: every profile for a full rewrite, the edited ones otherwise")
+        int profileCount;
+
+        @Label("Queued Changes")
+        int changes;
+
+        @Label("Full Rewrite")
+        boolean fullRewrite;
+
+        @Label("Files Skipped")
+        @Description("Files left alone because their content matched the last write")
+        int filesSkipped;
+    }
+
+    @Name("viewmodel.ProfileOperation")
+    @Label("Viewmodel Profile Operation")
+    @Category("Viewmodel")
+    @Enabled(false)
+    @StackTrace(false)
+    static final class ProfileOperation extends Event {
+        @Label("Operation")
+        String operation;
+
+        @Label("Profile")
+        String profile;
+
+        @Label("Previous Name")
+        String previousName;
+    }
+
+    @Name("viewmodel.RenderHook")
+    @Label("Viewmodel Render Hook")
+    @Description("One sampled execution of a held item renderer hook")
+    @Category("Viewmodel")
+    @Enabled(false)
+    @StackTrace(false)
+    static final class RenderHook extends Event {
+        @Label("Hook")
+        String hook;
+
+        @Label("Hook Duration")
+        @Timespan(Timespan.NANOSECONDS)
+        long hookDuration;
+    }
+}
@@ -0,0 +1,51 @@
+package com.viewmodel;
+
+/**
+ * Size, offset and rotation for one hand. Values are authored for the right arm; an item held in the left
+ * arm is drawn with the {@link #mirrored} layout, so the same numbers place it symmetrically.
+ */
+public record HandTransform(
+    float size,
+    float positionX,
+    float positionY,
+    float positionZ,
+    float rotationYaw,
+    float rotationPitch,
+    float rotationRoll
+) {
+    /**
+     * The layout reflected across the player's vertical center plane: the sideways offset, yaw and roll
+     * change sign, everything else stays.
+     */
+    public HandTransform mirrored() {
+        return new HandTransform(size, -positionX, positionY, positionZ, -rotationYaw, rotationPitch, -rotationRoll);
+    }
+
+    public HandTransform withSize(float newSize) {
+        return new HandTransform(newSize, positionX, positionY, positionZ, rotationYaw, rotationPitch, rotationRoll);
+    }
+
+    public HandTransform withPositionX(float newPositionX) {
+        return new HandTransform(size, newPositionX, positionY, positionZ, rotationYaw, rotationPitch, rotationRoll);
+    }
+
+    public HandTransform withPositionY(float newPositionY) {
+        return new HandTransform(size, positionX, newPositionY, positionZ, rotationYaw, rotationPitch, rotationRoll);
+    }
+
+    public HandTransform withPositionZ(float newPositionZ) {
+        return new HandTransform(size, positionX, positionY, newPositionZ, rotationYaw, rotationPitch, rotationRoll);
+    }
+
+    public HandTransform withRotationYaw(float newRotationYaw) {
+        return new HandTransform(size, positionX, positionY, positionZ, newRotationYaw, rotationPitch, rotationRoll);
+    }
+
+    public HandTransform withRotationPitch(float newRotationPitch) {
+        return new HandTransform(size, positionX, positionY, positionZ, rotationYaw, newRotationPitch, rotationRoll);
+    }
+
+    public HandTransform withRotationRoll(float newRotationRoll) {
+        return new HandTransform(size, positionX, positionY, positionZ, rotationYaw, rotationPitch, newRotationRoll);
+    }
+}
@@ -0,0 +1,136 @@
+package com.viewmodel;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+
+/**
+ * Latency histograms for the render hooks and the config operations, shown by the timings overlay and
+ * written out on demand.
+ * <p>
+ * Collection only runs while it is enabled: when the overlay is open, or for the whole session with
+ * {@code -Dviewmodel.timings=true} (which also covers the initial load). Render hook probes are also timed
+ * while a flight recording wants {@link FlightEvents.RenderHook} samples. Otherwise each probe is a single
+ * field read and a branch.
+ * <pre>{@code
+ * long start = HookTimings.start();
+ * ...
+ * HookTimings.record(HookTimings.Probe.SWING, start);
+ * }</pre>
+ */
+public final class HookTimings {
+    private static final DateTimeFormatter FILE_STAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss", Locale.ROOT);
+    private static final boolean ALWAYS_ON = Boolean.getBoolean("viewmodel.timings");
+    private static volatile boolean histograms = ALWAYS_ON;
+    private static volatile boolean flightRecording;
+    private static volatile boolean enabled = ALWAYS_ON;
+
+    private HookTimings() {}
+
+    public static boolean enabled() {
+        return histograms;
+    }
+
+    /**
+     * Turns collection on or off. Turning it on through the overlay starts from empty histograms.
+     */
+    public static void setEnabled(boolean value) {
+        if (value && !histograms) {
+            reset();
+        }
+        histograms = value || ALWAYS_ON;
+        enabled = histograms || flightRecording;
+    }
+
+    static void setFlightRecording(boolean value) {
+        flightRecording = value;
+        enabled = histograms || value;
+    }
+
+    /**
+     * A start timestamp, or {@code 0} when collection is off.
+     */
+    public static long start() {
+        return enabled ? System.nanoTime() : 0L;
+    }
+
+    public static void record(Probe probe, long start) {
+        if (start == 0L) {
+            return;
+        }
+        long elapsed = System.nanoTime() - start;
+        if (histograms) {
+            probe.histogram.record(elapsed);
+        }
+        if (flightRecording && probe.renderHook && ++probe.calls % FlightEvents.SAMPLE_EVERY == 0) {
+            FlightEvents.renderHook(probe.label, elapsed);
+        }
+    }
+
+    public static void reset() {
+        for (Probe probe : Probe.values()) {
+            probe.histogram.reset();
+        }
+    }
+
+    /**
+     * Writes a summary and the raw bucket counts of every probe to a new file in {@code directory}.
+     *
+     * @return the file written
+     */
+    public static Path dump(Path directory) throws IOException {
+        StringBuilder out = new StringBuilder(4096);
+        out.append("# probe count p50_ns p99_ns max_ns\n");
+        for (Probe probe : Probe.values()) {
+            LatencyHistogram histogram = probe.histogram;
+            out.append(probe.label)
+                .append(' ').append(histogram.count())
+                .append(' ').append(histogram.percentile(0.50))
+                .append(' ').append(histogram.percentile(0.99))
+                .append(' ').append(histogram.max())
+                .append('\n');
+        }
+        for (Probe probe : Probe.values()) {
+            out.append("\n# ").append(probe.label).append(": bucket_start_ns count\n");
+            probe.histogram.appendBuckets(out);
+        }
+
+        Files.createDirectories(directory);
+        Path file = directory.resolve("timings-" + LocalDateTime.now().format(FILE_STAMP) + ".txt");
+        Files.writeString(file, out, StandardCharsets.UTF_8);
+        return file;
+    }
+
+    public enum Probe {
+        CAPTURE("capture", true),
+        TRANSFORM("transform", true),
+        EQUIP("equipOffset", true),
+        SWING("swingOffset", true),
+        SWITCH("profileSwitch", false),
+        SAVE("save", false),
+        LOAD("load", false);
+
+        private final String label;
+        private final boolean renderHook;
+        private final LatencyHistogram histogram = new LatencyHistogram();
+        // Render thread only; counts calls for flight recorder sampling.
+        private int calls;
+
+        Probe(String label, boolean renderHook) {
+            this.label = label;
+            this.renderHook = renderHook;
+        }
+
+        public String label() {
+            return label;
+        }
+
+        public LatencyHistogram histogram() {
+            return histogram;
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.viewmodel;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One config screen session as a list of edits, each with the time since the previous one, stored as JSON
+ * lines. {@link ProfileEditor} records traces and replays their steps, so a player's slider drags and
+ * profile clicks can be run again headless with the same timing the write-behind saw.
+ */
+public final class InteractionTrace {
+    static final String OP_SET = "set";
+    static final String OP_TOGGLE = "toggle";
+    static final String OP_HAND = "hand";
+    static final String OP_MIRROR = "mirror";
+    static final String OP_RESET = "reset";
+    static final String OP_SELECT = "select";
+    static final String OP_CREATE = "create";
+    static final String OP_RENAME = "rename";
+    static final String OP_DELETE = "delete";
+    static final String OP_FLUSH = "flush";
+
+    private static final Gson GSON = new Gson();
+
+    private final List<Step> steps = new ArrayList<>();
+    private long lastStepNanos = System.nanoTime();
+
+    public List<Step> steps() {
+        return Collections.unmodifiableList(steps);
+    }
+
+    /**
+     * Appends a step that happened now.
+     */
+    void record(String op, String target, Float value, Boolean flag, Integer index) {
+        long now = System.nanoTime();
+        long delayMillis = steps.isEmpty() ? 0L : TimeUnit.NANOSECONDS.toMillis(now - lastStepNanos);
+        lastStepNanos = now;
+        steps.add(new Step(delayMillis, op, target, value, flag, index));
+    }
+
+    void add(Step step) {
+        steps.add(Objects.requireNonNull(step));
+    }
+
+    /**
+     * Writes {@code steps} as JSON lines. Static so a copy can be written off the thread that records.
+     */
+    static void write(Path target, List<Step> steps) throws IOException {
+        StringBuilder lines = new StringBuilder(steps.size() * 48);
+        for (Step step : steps) {
+            GSON.toJson(step, lines);
+            lines.append('\n');
+        }
+        Files.createDirectories(Objects.requireNonNull(target.getParent()));
+        Files.writeString(target, lines, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Reads a trace written by {@link #write}. Unlike the profile journal nothing is recovered from a bad
+     * line: a replay of half a session would report misleading numbers.
+     */
+    public static InteractionTrace read(Path source) throws IOException {
+        InteractionTrace trace = new InteractionTrace();
+        try (BufferedReader reader = Files.newBufferedReader(source, StandardCharsets.UTF_8)) {
+            String line;
+            int number = 0;
+            while ((line = reader.readLine()) != null) {
+                number++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                Step step;
+                try {
+                    step = GSON.fromJson(line, Step.class);
+                } catch (JsonParseException e) {
+                    step = null;
+                }
+                if (step == null || step.op() == null) {
+                    throw new IOException("Malformed trace step on line " + number + " of " + source);
+                }
+                trace.add(step);
+            }
+        }
+        return trace;
+    }
+
+    /**
+     * One edit. Which of the optional fields is set depends on {@code op}: {@code set} has a slider
+     * {@code target} and a {@code value}, {@code toggle} a {@code target} and a {@code flag}, {@code select}
+     * an {@code index}, {@code create} and {@code rename} the requested name as {@code target}.
+     */
+    public record Step(long delayMillis, String op, String target, Float value, Boolean flag, Integer index) {}
+}
@@ -0,0 +1,339 @@
+package com.viewmodel;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonParseException;
+import net.minecraft.item.Item;
+import net.minecraft.item.ItemStack;
+import net.minecraft.registry.Registries;
+import net.minecraft.registry.RegistryKeys;
+import net.minecraft.registry.tag.TagKey;
+import net.minecraft.util.Identifier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+/**
+ * Binds profiles to items ({@code minecraft:bow}) or item tags ({@code #minecraft:swords}), stored in
+ * {@code bindings.json}. An item binding wins over tag bindings, and tag bindings are tried in list order.
+ * <p>
+ * Resolution runs on the render thread for every hand every frame, so its result is cached per {@link Item}
+ * in an identity map. The cache is dropped only when something it depends on changes: the bindings, the
+ * profiles they point at, which profile is active, or the item tags of the current world.
+ * <p>
+ * A frame never reads storage: the profiles bindings and rules name are hydrated on the I/O thread by
+ * {@link #prefetch}, and an item whose profile has not arrived yet renders with the active profile.
+ */
+public final class ItemBindings {
+    private static final Logger LOGGER = LoggerFactory.getLogger("ViewmodelConfig");
+    private static final Gson GSON = new GsonBuilder().setPrettyPrinting().create();
+    private static final String TAG_PREFIX = "#";
+    private static final String PREFETCH_KEY = "prefetch";
+    // Marks items that follow the active profile, since IdentityHashMap cannot tell a null value from a miss.
+    private static final ViewModelRenderState UNBOUND = ViewModelRenderState.of(0L, ViewModelProfile.baseline());
+
+    private final Path path;
+    private final Runnable onChange;
+    private final AtomicInteger epoch = new AtomicInteger();
+    private final AtomicBoolean dirty = new AtomicBoolean();
+    private volatile List<Binding> bindings = List.of();
+    // Render states by profile name, ignoring case. Each prefetch request installs its own empty map, which
+    // the I/O thread replaces with the hydrated states unless a later request has installed another.
+    private final AtomicReference<Map<String, ViewModelRenderState>> prefetched = new AtomicReference<>(Map.of());
+
+    // Render thread only.
+    private final Map<Item, ViewModelRenderState> resolved = new IdentityHashMap<>();
+    private Compiled compiled = Compiled.EMPTY;
+    private int resolvedEpoch = -1;
+
+    ItemBindings(Path path, Runnable onChange) {
+        this.path = path;
+        this.onChange = onChange;
+    }
+
+    public List<Binding> bindings() {
+        return bindings;
+    }
+
+    /**
+     * Binds {@code target} to a profile, replacing any binding the target already had.
+     *
+     * @throws IllegalArgumentException if the target is neither an item id nor a {@code #tag} id
+     */
+    public synchronized void bind(String target, String profile) {
+        String normalized = target == null ? "" : target.trim();
+        if (parseTarget(normalized) == null) {
+            throw new IllegalArgumentException("Not an item or #tag id: " + target);
+        }
+        List<Binding> updated = new ArrayList<>(bindings.size() + 1);
+        for (Binding binding : bindings) {
+            if (!binding.target().equals(normalized)) {
+                updated.add(binding);
+            }
+        }
+        updated.add(new Binding(normalized, profile));
+        replace(updated);
+    }
+
+    public synchronized boolean unbind(String target) {
+        List<Binding> updated = new ArrayList<>(bindings);
+        if (!updated.removeIf(binding -> binding.target().equals(target == null ? "" : target.trim()))) {
+            return false;
+        }
+        replace(updated);
+        return true;
+    }
+
+    synchronized void profileRenamed(String previous, String updated) {
+        List<Binding> renamed = new ArrayList<>(bindings.size());
+        boolean changed = false;
+        for (Binding binding : bindings) {
+            if (binding.profile().equalsIgnoreCase(previous)) {
+                renamed.add(new Binding(binding.target(), updated));
+                changed = true;
+            } else {
+                renamed.add(binding);
+            }
+        }
+        if (changed) {
+            replace(renamed);
+        } else {
+            invalidate();
+        }
+    }
+
+    synchronized void profileRemoved(String name) {
+        List<Binding> remaining = new ArrayList<>(bindings);
+        if (remaining.removeIf(binding -> binding.profile().equalsIgnoreCase(name))) {
+            replace(remaining);
+        } else {
+            invalidate();
+        }
+    }
+
+    /**
+     * Forgets every cached resolution; the next frame resolves each item again.
+     */
+    public void invalidate() {
+        epoch.incrementAndGet();
+    }
+
+    /**
+     * The state to render {@code stack} with: a bound profile's, or {@code global} for unbound items and
+     * items bound to the active profile (so live edits show up on them).
+     */
+    ViewModelRenderState resolve(ItemStack stack, ViewModelRenderState global) {
+        sync();
+        if (compiled.isEmpty()) {
+            return global;
+        }
+
+        Item item = stack.getItem();
+        ViewModelRenderState state = resolved.get(item);
+        if (state == null) {
+            state = lookup(stack);
+            resolved.put(item, state);
+        }
+        return state == UNBOUND ? global : state;
+    }
+
+    /**
+     * The render state of a named profile, shared with the item resolution cache. The active profile,
+     * unknown names and profiles that have not been prefetched yet map to {@code global}. Render thread only.
+     */
+    ViewModelRenderState stateOf(String profileName, ViewModelRenderState global) {
+        sync();
+        ViewModelRenderState state = profileState(profileName);
+        return state == null ? global : state;
+    }
+
+    /**
+     * Hydrates the profiles the bindings and {@code otherProfiles} name on the I/O thread and hands their
+     * render states to the render thread. Call it whenever the bindings, the rules or the active profile
+     * change; until the states arrive those profiles resolve to the active one.
+     */
+    void prefetch(Collection<String> otherProfiles, Function<String, ViewModelProfile> hydrator) {
+        Map<String, ViewModelRenderState> requested = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        prefetched.set(requested);
+        invalidate();
+
+        Set<String> names = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+        for (Binding binding : bindings) {
+            names.add(binding.profile());
+        }
+        names.addAll(otherProfiles);
+        if (names.isEmpty()) {
+            return;
+        }
+        ViewModelConfig.io().run(PREFETCH_KEY, () -> {
+            Map<String, ViewModelRenderState> states = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+            for (String name : names) {
+                ViewModelProfile profile = hydrator.apply(name);
+                if (profile != null) {
+                    states.put(name, ViewModelRenderState.of(0L, profile));
+                }
+            }
+            if (prefetched.compareAndSet(requested, Collections.unmodifiableMap(states))) {
+                invalidate();
+            }
+        }).exceptionally(error -> {
+            LOGGER.error("Unable to prefetch bound viewmodel profiles", error);
+            return null;
+        });
+    }
+
+    void load() {
+        List<Binding> loaded = AtomicFiles.readNewest(path, ItemBindings::read);
+        synchronized (this) {
+            bindings = loaded == null ? List.of() : List.copyOf(loaded);
+            dirty.set(false);
+            invalidate();
+        }
+    }
+
+    /**
+     * Writes the bindings if they changed since the last write. Runs on the write-behind thread. Returns
+     * {@code false} if the write failed; the bindings then stay dirty for the caller to retry.
+     */
+    boolean writeIfDirty() {
+        if (!dirty.getAndSet(false)) {
+            return true;
+        }
+        BindingsPayload payload = new BindingsPayload(bindings);
+        try {
+            AtomicFiles.write(path, out -> {
+                Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+                GSON.toJson(payload, writer);
+                writer.flush();
+            });
+        } catch (IOException e) {
+            LOGGER.error("Unable to write viewmodel item bindings, will retry", e);
+            dirty.set(true);
+            return false;
+        }
+        return true;
+    }
+
+    private void replace(List<Binding> updated) {
+        bindings = List.copyOf(updated);
+        dirty.set(true);
+        invalidate();
+        onChange.run();
+    }
+
+    private void sync() {
+        int current = epoch.get();
+        if (current != resolvedEpoch) {
+            resolved.clear();
+            compiled = compile(bindings);
+            resolvedEpoch = current;
+        }
+    }
+
+    private ViewModelRenderState lookup(ItemStack stack) {
+        String profileName = compiled.items().get(Registries.ITEM.getId(stack.getItem()));
+        if (profileName == null) {
+            for (TagBinding tag : compiled.tags()) {
+                if (stack.isIn(tag.tag())) {
+                    profileName = tag.profile();
+                    break;
+                }
+            }
+        }
+        ViewModelRenderState state = profileName == null ? null : profileState(profileName);
+        return state == null ? UNBOUND : state;
+    }
+
+    private ViewModelRenderState profileState(String profileName) {
+        if (profileName.equalsIgnoreCase(ViewModelConfig.profiles().getActiveProfile().name())) {
+            return null;
+        }
+        return prefetched.get().get(profileName);
+    }
+
+    private static Compiled compile(List<Binding> bindings) {
+        if (bindings.isEmpty()) {
+            return Compiled.EMPTY;
+        }
+        Map<Identifier, String> items = new HashMap<>();
+        List<TagBinding> tags = new ArrayList<>();
+        for (Binding binding : bindings) {
+            Object target = parseTarget(binding.target());
+            if (target instanceof Identifier id) {
+                items.put(id, binding.profile());
+            } else if (target instanceof TagKey<?>) {
+                @SuppressWarnings("unchecked")
+                TagKey<Item> tag = (TagKey<Item>) target;
+                tags.add(new TagBinding(tag, binding.profile()));
+            } else {
+                LOGGER.warn("Ignoring item binding with invalid target {}", binding.target());
+            }
+        }
+        return new Compiled(items, tags);
+    }
+
+    /**
+     * Parses an item id or {@code #tag} id into an {@link Identifier} or a {@link TagKey}, or {@code null}.
+     */
+    static Object parseTarget(String target) {
+        if (target.startsWith(TAG_PREFIX)) {
+            Identifier id = Identifier.tryParse(target.substring(TAG_PREFIX.length()));
+            return id == null ? null : TagKey.of(RegistryKeys.ITEM, id);
+        }
+        return target.isEmpty() ? null : Identifier.tryParse(target);
+    }
+
+    private static List<Binding> read(Path file) throws IOException {
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            BindingsPayload payload = GSON.fromJson(reader, BindingsPayload.class);
+            if (payload == null || payload.bindings() == null) {
+                throw new JsonParseException("Item bindings file has no entries");
+            }
+            List<Binding> result = new ArrayList<>();
+            for (Binding binding : payload.bindings()) {
+                if (binding != null && binding.target() != null && binding.profile() != null) {
+                    result.add(new Binding(binding.target().trim(), binding.profile()));
+                }
+            }
+            return result;
+        }
+    }
+
+    /**
+     * One binding as it appears in {@code bindings.json}.
+     */
+    public record Binding(String target, String profile) {}
+
+    private record BindingsPayload(List<Binding> bindings) {}
+
+    private record TagBinding(TagKey<Item> tag, String profile) {}
+
+    private record Compiled(Map<Identifier, String> items, List<TagBinding> tags) {
+        static final Compiled EMPTY = new Compiled(Map.of(), List.of());
+
+        boolean isEmpty() {
+            return items.isEmpty() && tags.isEmpty();
+        }
+    }
+}
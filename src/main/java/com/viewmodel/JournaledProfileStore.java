@@ -0,0 +1,190 @@
+package com.viewmodel;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Single-file backend for very large libraries: a {@link ProfileBinaryStore} snapshot plus a
+ * {@link ProfileJournal} of edits made since. Edits only append to the journal; once it passes the
+ * threshold the snapshot is rewritten on the write-behind thread and the journal is dropped.
+ * <p>
+ * When another game instance sharing the folder has appended or compacted since this one last did, the
+ * durable model is read again before anything is committed, so each instance's edits land on top of the
+ * other's field by field. Profiles that came out different are reported as remote changes.
+ */
+final class JournaledProfileStore implements ProfileStore {
+    private static final long COMPACT_THRESHOLD_BYTES = 64L * 1024L;
+
+    private final Path snapshotPath;
+    private final Path journalPath;
+    private final ProfileJournal journal;
+    private final List<Reloaded> remoteChanges = new ArrayList<>();
+    // Replaced and committed into on the I/O thread only; read() looks profiles up from any thread, under
+    // this store's monitor while a commit mutates the model in place.
+    private volatile ProfileJournal.Model durable = new ProfileJournal.Model(List.of(), null, 0L);
+    private FileTime snapshotModified;
+
+    JournaledProfileStore(Path snapshotPath, Path journalPath) {
+        this.snapshotPath = snapshotPath;
+        this.journalPath = journalPath;
+        this.journal = new ProfileJournal(journalPath);
+    }
+
+    @Override
+    public Index load() throws IOException {
+        if (!readDurable()) {
+            return null;
+        }
+        remoteChanges.clear();
+        return new Index(List.copyOf(durable.columns().names()), durable.active());
+    }
+
+    /**
+     * The durable model has to stay resident anyway so compaction can rewrite the snapshot, so hydration is
+     * just a lookup in it.
+     */
+    @Override
+    public synchronized ViewModelProfile read(String name) {
+        return durable.find(name);
+    }
+
+    @Override
+    public List<Path> watchedDirectories() {
+        return List.of(snapshotPath.getParent());
+    }
+
+    @Override
+    public void reload(Path file) throws IOException {
+        if (file.equals(snapshotPath) || file.equals(journalPath)) {
+            catchUp();
+        }
+    }
+
+    @Override
+    public List<Reloaded> takeRemoteChanges() {
+        List<Reloaded> changes = List.copyOf(remoteChanges);
+        remoteChanges.clear();
+        return changes;
+    }
+
+    @Override
+    public void write(List<ProfileChange> batch) throws IOException {
+        catchUp();
+        List<ProfileJournal.Entry> entries = new ArrayList<>();
+        for (ProfileChange change : batch) {
+            entries.addAll(ProfileJournal.describe(change));
+        }
+        if (entries.isEmpty()) {
+            return;
+        }
+
+        List<ProfileJournal.Entry> stamped;
+        synchronized (this) {
+            stamped = durable.commit(ProfileJournal.coalesce(entries));
+        }
+        if (stamped.isEmpty()) {
+            return;
+        }
+        try {
+            journal.append(stamped);
+        } catch (IOException e) {
+            // The edits are already applied to the durable model, so a snapshot still captures them.
+            compact();
+            return;
+        }
+        if (journal.sizeBytes() >= COMPACT_THRESHOLD_BYTES) {
+            compact();
+        }
+    }
+
+    /**
+     * A library identical to the durable model is already on disk, snapshot and journal together, so it is
+     * not rewritten.
+     */
+    @Override
+    public void replaceAll(Library library) throws IOException {
+        catchUp();
+        ProfileColumns profiles = ProfileColumns.of(library.profiles());
+        if (durable.columns().sameRows(profiles) && Objects.equals(durable.active(), library.activeName())) {
+            return;
+        }
+        durable = new ProfileJournal.Model(profiles, library.activeName(), durable.sequence());
+        compact();
+    }
+
+    private boolean readDurable() throws IOException {
+        ProfileJournal.Model model = AtomicFiles.readNewest(snapshotPath, JournaledProfileStore::readSnapshot);
+        if (model == null) {
+            return false;
+        }
+        ProfileJournal.ReadResult result = journal.read();
+        model.replay(result.entries());
+        durable = model;
+        snapshotModified = modifiedTime(snapshotPath);
+        if (result.torn()) {
+            compact();
+        }
+        return true;
+    }
+
+    private void compact() throws IOException {
+        ProfileBinaryStore.write(snapshotPath, durable.columns(), durable.active(), durable.sequence());
+        journal.truncate();
+        snapshotModified = modifiedTime(snapshotPath);
+    }
+
+    /**
+     * Reads the files again if another instance wrote them since this one did, and records every profile
+     * that differs from what this instance had.
+     */
+    private void catchUp() throws IOException {
+        if (Files.notExists(snapshotPath)
+            || (Objects.equals(modifiedTime(snapshotPath), snapshotModified) && sizeOf(journalPath) == journal.sizeBytes())) {
+            return;
+        }
+        ProfileColumns before = durable.columns();
+        if (!readDurable()) {
+            return;
+        }
+        ProfileColumns after = durable.columns();
+        for (int row = 0; row < after.size(); row++) {
+            int oldRow = before.indexOf(after.name(row));
+            if (oldRow < 0) {
+                remoteChanges.add(new Reloaded(null, after.name(row), after.get(row)));
+            } else if (!after.sameRow(row, before, oldRow)) {
+                remoteChanges.add(new Reloaded(before.name(oldRow), after.name(row), after.get(row)));
+            }
+        }
+        for (int row = 0; row < before.size(); row++) {
+            if (after.indexOf(before.name(row)) < 0) {
+                remoteChanges.add(new Reloaded(before.name(row), null, null));
+            }
+        }
+    }
+
+    private static FileTime modifiedTime(Path path) {
+        try {
+            return Files.getLastModifiedTime(path);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private static long sizeOf(Path path) {
+        try {
+            return Files.size(path);
+        } catch (IOException e) {
+            return 0L;
+        }
+    }
+
+    static ProfileJournal.Model readSnapshot(Path path) throws IOException {
+        ProfileBinaryStore.Snapshot snapshot = ProfileBinaryStore.read(path);
+        return new ProfileJournal.Model(snapshot.profiles(), snapshot.activeName(), snapshot.sequence());
+    }
+}
@@ -0,0 +1,149 @@
+package com.viewmodel;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Compact binary snapshot of the profile list.
+ * Layout (little endian): a 24 byte header, one fixed-width record per profile holding the numeric and
+ * boolean fields (the off hand layout is always reserved and flagged when present) plus a slice into the
+ * trailing UTF-8 name table. Large files are read through a memory-mapped channel and decoded straight
+ * into {@link ProfileColumns}, so loading never goes through reflection or builds an object per profile.
+ */
+final class ProfileBinaryStore {
+    private static final int MAGIC = 0x42504D56; // "VMPB"
+    private static final int VERSION = 2;
+    private static final int HEADER_BYTES = 24;
+    private static final int RECORD_BYTES = 68;
+    private static final int FLAG_NO_SWING = 1;
+    private static final int FLAG_SCALE_SWING = 1 << 1;
+    private static final int FLAG_OFF_HAND = 1 << 2;
+    // Mappings are only released by the GC, which blocks replacing the file on some platforms,
+    // so small stores are simply read onto the heap.
+    private static final long MAP_THRESHOLD_BYTES = 1L << 20;
+
+    private ProfileBinaryStore() {}
+
+    static void write(Path path, List<ViewModelProfile> profiles, String activeName, long sequence) throws IOException {
+        write(path, ProfileColumns.of(profiles), activeName, sequence);
+    }
+
+    /**
+     * Writes straight from the columns; the record flags use the same bits as {@link ProfileColumns}, and
+     * rows without an off hand layout already repeat the main hand values in its columns.
+     */
+    static void write(Path path, ProfileColumns profiles, String activeName, long sequence) throws IOException {
+        int count = profiles.size();
+        byte[][] names = new byte[count][];
+        int tableBytes = 0;
+        int activeIndex = -1;
+        for (int i = 0; i < count; i++) {
+            String name = profiles.name(i);
+            names[i] = name.getBytes(StandardCharsets.UTF_8);
+            tableBytes += names[i].length;
+            if (activeIndex < 0 && name.equalsIgnoreCase(activeName)) {
+                activeIndex = i;
+            }
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + count * RECORD_BYTES + tableBytes)
+            .order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(MAGIC)
+            .putInt(VERSION)
+            .putInt(count)
+            .putInt(activeIndex)
+            .putLong(sequence);
+
+        int nameOffset = 0;
+        for (int i = 0; i < count; i++) {
+            buffer.putInt(nameOffset).putInt(names[i].length);
+            for (int column = 0; column < ProfileColumns.OFF_HAND; column++) {
+                buffer.putFloat(profiles.value(i, column));
+            }
+            buffer.putInt(profiles.flags(i) & (FLAG_NO_SWING | FLAG_SCALE_SWING | FLAG_OFF_HAND));
+            for (int column = ProfileColumns.OFF_HAND; column < ProfileColumns.STRIDE; column++) {
+                buffer.putFloat(profiles.value(i, column));
+            }
+            nameOffset += names[i].length;
+        }
+        for (byte[] name : names) {
+            buffer.put(name);
+        }
+
+        AtomicFiles.write(path, out -> out.write(buffer.array()));
+    }
+
+    static Snapshot read(Path path) throws IOException {
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long length = channel.size();
+            if (length < HEADER_BYTES || length > Integer.MAX_VALUE) {
+                throw new IOException("Profile store has invalid length " + length);
+            }
+            if (length >= MAP_THRESHOLD_BYTES) {
+                buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, length);
+            } else {
+                buffer = ByteBuffer.allocate((int) length);
+                while (buffer.hasRemaining()) {
+                    if (channel.read(buffer) < 0) {
+                        throw new IOException("Profile store shrank while reading");
+                    }
+                }
+                buffer.flip();
+            }
+        }
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        return decode(buffer);
+    }
+
+    private static Snapshot decode(ByteBuffer buffer) throws IOException {
+        if (buffer.getInt(0) != MAGIC) {
+            throw new IOException("Not a viewmodel profile store");
+        }
+        int version = buffer.getInt(4);
+        if (version != VERSION) {
+            throw new IOException("Unsupported profile store version " + version);
+        }
+        int count = buffer.getInt(8);
+        int activeIndex = buffer.getInt(12);
+        long sequence = buffer.getLong(16);
+        long tableStart = HEADER_BYTES + (long) count * RECORD_BYTES;
+        if (count < 0 || tableStart > buffer.limit()) {
+            throw new IOException("Profile store is truncated");
+        }
+        int tableBytes = buffer.limit() - (int) tableStart;
+
+        ProfileColumns profiles = new ProfileColumns(count);
+        byte[] scratch = new byte[64];
+        for (int i = 0; i < count; i++) {
+            int base = HEADER_BYTES + i * RECORD_BYTES;
+            int nameOffset = buffer.getInt(base);
+            int nameLength = buffer.getInt(base + 4);
+            if (nameOffset < 0 || nameLength < 0 || (long) nameOffset + nameLength > tableBytes) {
+                throw new IOException("Profile store record " + i + " points outside the name table");
+            }
+            if (scratch.length < nameLength) {
+                scratch = new byte[Math.max(nameLength, scratch.length * 2)];
+            }
+            buffer.get((int) tableStart + nameOffset, scratch, 0, nameLength);
+            int flags = buffer.getInt(base + 36) & (FLAG_NO_SWING | FLAG_SCALE_SWING | FLAG_OFF_HAND);
+            int row = profiles.addRow(new String(scratch, 0, nameLength, StandardCharsets.UTF_8), flags);
+            // The off hand block of a record without an off hand layout holds the main hand values.
+            for (int column = 0; column < ProfileColumns.OFF_HAND; column++) {
+                profiles.setValue(row, column, buffer.getFloat(base + 8 + column * 4));
+                profiles.setValue(row, ProfileColumns.OFF_HAND + column, buffer.getFloat(base + 40 + column * 4));
+            }
+        }
+
+        String activeName = activeIndex >= 0 && activeIndex < count ? profiles.name(activeIndex) : null;
+        return new Snapshot(profiles, activeName, sequence);
+    }
+
+    record Snapshot(ProfileColumns profiles, String activeName, long sequence) {}
+}
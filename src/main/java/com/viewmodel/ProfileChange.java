@@ -0,0 +1,15 @@
+package com.viewmodel;
+
+/**
+ * A single edit to the profile library, reported by {@link ViewModelProfileManager} and handed to the
+ * active {@link ProfileStore} in batches by the write-behind thread.
+ */
+sealed interface ProfileChange {
+    record Added(ViewModelProfile profile) implements ProfileChange {}
+
+    record Changed(ViewModelProfile previous, ViewModelProfile updated) implements ProfileChange {}
+
+    record Removed(ViewModelProfile profile) implements ProfileChange {}
+
+    record ActiveChanged(ViewModelProfile active) implements ProfileChange {}
+}
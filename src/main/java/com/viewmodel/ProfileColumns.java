@@ -0,0 +1,244 @@
+package com.viewmodel;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * A profile library stored by column instead of as one object per profile: the fourteen transform values
+ * of every row packed into one float array, the swing and off hand flags in one byte per row, and the names
+ * in a {@link ProfileNameTable}. A 100k profile library is then a handful of arrays the GC never has to
+ * trace into, and comparing or writing it out walks primitives.
+ * <p>
+ * {@link ViewModelProfile} records are only made when a row is read through {@link #get} or the
+ * {@link #asList} view.
+ */
+final class ProfileColumns {
+    static final int SIZE = 0;
+    static final int POSITION_X = 1;
+    static final int POSITION_Y = 2;
+    static final int POSITION_Z = 3;
+    static final int ROTATION_YAW = 4;
+    static final int ROTATION_PITCH = 5;
+    static final int ROTATION_ROLL = 6;
+    // The off hand columns follow the main hand ones in the same order; they repeat the main hand values
+    // in rows without FLAG_OFF_HAND.
+    static final int OFF_HAND = 7;
+    static final int STRIDE = 14;
+
+    static final int FLAG_NO_SWING = 1;
+    static final int FLAG_SCALE_SWING = 1 << 1;
+    static final int FLAG_OFF_HAND = 1 << 2;
+
+    private final ProfileNameTable names;
+    private float[] values;
+    private byte[] flags;
+
+    ProfileColumns(int capacity) {
+        int rows = Math.max(capacity, 4);
+        this.names = new ProfileNameTable(capacity);
+        this.values = new float[rows * STRIDE];
+        this.flags = new byte[rows];
+    }
+
+    /**
+     * Copies {@code profiles} into columns; a view of other columns is copied array by array.
+     */
+    static ProfileColumns of(List<ViewModelProfile> profiles) {
+        if (profiles instanceof Rows rows) {
+            return rows.columns.copy();
+        }
+        ProfileColumns columns = new ProfileColumns(profiles.size());
+        for (ViewModelProfile profile : profiles) {
+            columns.add(profile);
+        }
+        return columns;
+    }
+
+    int size() {
+        return names.size();
+    }
+
+    String name(int row) {
+        return names.get(row);
+    }
+
+    float value(int row, int column) {
+        return values[row * STRIDE + column];
+    }
+
+    int flags(int row) {
+        return flags[row];
+    }
+
+    /**
+     * Returns the row of {@code name}, ignoring case, or {@code -1}.
+     */
+    int indexOf(String name) {
+        return names.indexOf(name);
+    }
+
+    ViewModelProfile get(int row) {
+        int base = row * STRIDE;
+        int rowFlags = flags[row];
+        float[] v = values;
+        HandTransform offHand = (rowFlags & FLAG_OFF_HAND) == 0 ? null : new HandTransform(
+            v[base + OFF_HAND + SIZE],
+            v[base + OFF_HAND + POSITION_X],
+            v[base + OFF_HAND + POSITION_Y],
+            v[base + OFF_HAND + POSITION_Z],
+            v[base + OFF_HAND + ROTATION_YAW],
+            v[base + OFF_HAND + ROTATION_PITCH],
+            v[base + OFF_HAND + ROTATION_ROLL]
+        );
+        return new ViewModelProfile(
+            names.get(row),
+            v[base + SIZE],
+            v[base + POSITION_X],
+            v[base + POSITION_Y],
+            v[base + POSITION_Z],
+            v[base + ROTATION_YAW],
+            v[base + ROTATION_PITCH],
+            v[base + ROTATION_ROLL],
+            (rowFlags & FLAG_NO_SWING) != 0,
+            (rowFlags & FLAG_SCALE_SWING) != 0,
+            offHand
+        );
+    }
+
+    /**
+     * Appends an empty row for a reader that fills the columns itself through {@link #setValue}.
+     */
+    int addRow(String name, int rowFlags) {
+        int row = names.add(name);
+        if (row == flags.length) {
+            flags = Arrays.copyOf(flags, flags.length * 2);
+            values = Arrays.copyOf(values, flags.length * STRIDE);
+        }
+        flags[row] = (byte) rowFlags;
+        return row;
+    }
+
+    void setValue(int row, int column, float value) {
+        values[row * STRIDE + column] = value;
+    }
+
+    int add(ViewModelProfile profile) {
+        int row = addRow(profile.name(), 0);
+        store(row, profile);
+        return row;
+    }
+
+    void set(int row, ViewModelProfile profile) {
+        if (!names.get(row).equals(profile.name())) {
+            names.set(row, profile.name());
+        }
+        store(row, profile);
+    }
+
+    void rename(int row, String name) {
+        names.set(row, name);
+    }
+
+    void remove(int row) {
+        int size = names.size();
+        names.remove(row);
+        System.arraycopy(flags, row + 1, flags, row, size - row - 1);
+        System.arraycopy(values, (row + 1) * STRIDE, values, row * STRIDE, (size - row - 1) * STRIDE);
+    }
+
+    /**
+     * Whether a row here and a row of {@code other} hold the same profile, name included.
+     */
+    boolean sameRow(int row, ProfileColumns other, int otherRow) {
+        if (flags[row] != other.flags[otherRow] || !names.get(row).equals(other.names.get(otherRow))) {
+            return false;
+        }
+        int columns = (flags[row] & FLAG_OFF_HAND) != 0 ? STRIDE : OFF_HAND;
+        return Arrays.equals(
+            values, row * STRIDE, row * STRIDE + columns,
+            other.values, otherRow * STRIDE, otherRow * STRIDE + columns
+        );
+    }
+
+    /**
+     * Whether both hold the same profiles in the same order.
+     */
+    boolean sameRows(ProfileColumns other) {
+        if (size() != other.size()) {
+            return false;
+        }
+        for (int row = 0; row < size(); row++) {
+            if (!sameRow(row, other, row)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    ProfileColumns copy() {
+        int size = names.size();
+        ProfileColumns copy = new ProfileColumns(size);
+        for (int row = 0; row < size; row++) {
+            copy.names.add(names.get(row));
+        }
+        System.arraycopy(values, 0, copy.values, 0, size * STRIDE);
+        System.arraycopy(flags, 0, copy.flags, 0, size);
+        return copy;
+    }
+
+    /**
+     * Read-only view that makes a record for each row as it is read; it follows later changes to the columns.
+     */
+    List<ViewModelProfile> asList() {
+        return new Rows(this);
+    }
+
+    /**
+     * The names in row order, as a read-only view.
+     */
+    List<String> names() {
+        return names.asList();
+    }
+
+    private void store(int row, ViewModelProfile profile) {
+        HandTransform offHand = profile.offHandOrMain();
+        int base = row * STRIDE;
+        values[base + SIZE] = profile.size();
+        values[base + POSITION_X] = profile.positionX();
+        values[base + POSITION_Y] = profile.positionY();
+        values[base + POSITION_Z] = profile.positionZ();
+        values[base + ROTATION_YAW] = profile.rotationYaw();
+        values[base + ROTATION_PITCH] = profile.rotationPitch();
+        values[base + ROTATION_ROLL] = profile.rotationRoll();
+        values[base + OFF_HAND + SIZE] = offHand.size();
+        values[base + OFF_HAND + POSITION_X] = offHand.positionX();
+        values[base + OFF_HAND + POSITION_Y] = offHand.positionY();
+        values[base + OFF_HAND + POSITION_Z] = offHand.positionZ();
+        values[base + OFF_HAND + ROTATION_YAW] = offHand.rotationYaw();
+        values[base + OFF_HAND + ROTATION_PITCH] = offHand.rotationPitch();
+        values[base + OFF_HAND + ROTATION_ROLL] = offHand.rotationRoll();
+        flags[row] = (byte) ((profile.noSwing() ? FLAG_NO_SWING : 0)
+            | (profile.scaleSwing() ? FLAG_SCALE_SWING : 0)
+            | (profile.offHand() != null ? FLAG_OFF_HAND : 0));
+    }
+
+    private static final class Rows extends AbstractList<ViewModelProfile> implements RandomAccess {
+        private final ProfileColumns columns;
+
+        Rows(ProfileColumns columns) {
+            this.columns = columns;
+        }
+
+        @Override
+        public ViewModelProfile get(int index) {
+            return columns.get(index);
+        }
+
+        @Override
+        public int size() {
+            return columns.size();
+        }
+    }
+}
@@ -0,0 +1,249 @@
+package com.viewmodel;
+
+import net.minecraft.util.Arm;
+import net.minecraft.util.Hand;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * The edits the config screen makes, without the screen: each one updates the live config and the active
+ * profile, which queues the change for the write-behind. The screen only maps widgets onto these calls, so
+ * replaying a trace through here exercises the same edit-to-disk path a player does.
+ * <p>
+ * With {@code -Dviewmodel.recordTrace=true} every edit is also recorded, and the trace is written to
+ * {@code config/viewmodel/traces} whenever the editor flushes.
+ */
+public final class ProfileEditor {
+    private static final Logger LOGGER = LoggerFactory.getLogger("ViewmodelConfig");
+    private static final DateTimeFormatter FILE_STAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss", Locale.ROOT);
+    private static final boolean RECORD = Boolean.getBoolean("viewmodel.recordTrace");
+    private static final String TRACE_KEY = "trace";
+
+    private final ViewModelProfileManager profiles;
+    private final InteractionTrace trace;
+    private Path tracePath;
+    private boolean editingOffHand;
+
+    /**
+     * An editor for the live library. Finishes the startup load first if it is still running.
+     */
+    public ProfileEditor() {
+        this(ViewModelConfig.profiles(), RECORD ? new InteractionTrace() : null);
+        ViewModelConfig.awaitLoad();
+    }
+
+    ProfileEditor(ViewModelProfileManager profiles, InteractionTrace trace) {
+        this.profiles = profiles;
+        this.trace = trace;
+    }
+
+    public boolean editingOffHand() {
+        return editingOffHand;
+    }
+
+    /**
+     * The layout the position and rotation sliders currently show.
+     */
+    public HandTransform editedHand() {
+        HandTransform offHand = ViewModelConfig.current.getOffHand();
+        if (editingOffHand && offHand != null) {
+            return offHand;
+        }
+        return ViewModelConfig.current.renderState().layout(Hand.MAIN_HAND, Arm.RIGHT);
+    }
+
+    /**
+     * Edits the main hand, or the off hand when it is selected; the first off hand edit gives it its own
+     * copy of the main hand layout.
+     */
+    public void set(Slider slider, double value) {
+        record(InteractionTrace.OP_SET, slider.key, (float) value, null, null);
+        if (editingOffHand) {
+            ViewModelConfig.current.setOffHand(slider.offHand.apply(editedHand(), (float) value));
+        } else {
+            slider.main.set(ViewModelConfig.current, (float) value);
+        }
+        profiles.updateActiveFromConfig();
+    }
+
+    public void set(Toggle toggle, boolean value) {
+        record(InteractionTrace.OP_TOGGLE, toggle.key, null, value, null);
+        toggle.setter.set(ViewModelConfig.current, value);
+        profiles.updateActiveFromConfig();
+    }
+
+    public void toggleEditedHand() {
+        record(InteractionTrace.OP_HAND, null, null, null, null);
+        this.editingOffHand = !editingOffHand;
+    }
+
+    public void mirrorOffHand() {
+        record(InteractionTrace.OP_MIRROR, null, null, null, null);
+        ViewModelConfig.current.setOffHand(null);
+        profiles.updateActiveFromConfig();
+    }
+
+    public void resetAll() {
+        record(InteractionTrace.OP_RESET, null, null, null, null);
+        ViewModelProfile.baseline().apply(ViewModelConfig.current);
+        profiles.updateActiveFromConfig();
+    }
+
+    public void select(int index) {
+        record(InteractionTrace.OP_SELECT, null, null, null, index);
+        profiles.select(index);
+    }
+
+    public ViewModelProfile create(String name) {
+        record(InteractionTrace.OP_CREATE, name, null, null, null);
+        return profiles.create(name);
+    }
+
+    public boolean rename(String name) {
+        record(InteractionTrace.OP_RENAME, name, null, null, null);
+        return profiles.renameActive(name);
+    }
+
+    public boolean delete() {
+        record(InteractionTrace.OP_DELETE, null, null, null, null);
+        return profiles.deleteActive();
+    }
+
+    /**
+     * Starts writing queued edits, as the screen does whenever it is closed or covered by a prompt.
+     */
+    public void flush() {
+        record(InteractionTrace.OP_FLUSH, null, null, null, null);
+        ViewModelConfig.flush();
+        if (trace != null) {
+            writeTrace();
+        }
+    }
+
+    /**
+     * Performs one recorded step.
+     */
+    void replay(InteractionTrace.Step step) {
+        switch (step.op()) {
+            case InteractionTrace.OP_SET -> {
+                Slider slider = Slider.byKey(step.target());
+                if (slider != null && step.value() != null) {
+                    set(slider, step.value());
+                }
+            }
+            case InteractionTrace.OP_TOGGLE -> {
+                Toggle toggle = Toggle.byKey(step.target());
+                if (toggle != null) {
+                    set(toggle, Boolean.TRUE.equals(step.flag()));
+                }
+            }
+            case InteractionTrace.OP_HAND -> toggleEditedHand();
+            case InteractionTrace.OP_MIRROR -> mirrorOffHand();
+            case InteractionTrace.OP_RESET -> resetAll();
+            case InteractionTrace.OP_SELECT -> select(step.index() == null ? -1 : step.index());
+            case InteractionTrace.OP_CREATE -> create(step.target());
+            case InteractionTrace.OP_RENAME -> rename(step.target());
+            case InteractionTrace.OP_DELETE -> delete();
+            case InteractionTrace.OP_FLUSH -> flush();
+            default -> LOGGER.warn("Skipping unknown viewmodel trace op {}", step.op());
+        }
+    }
+
+    private void record(String op, String target, Float value, Boolean flag, Integer index) {
+        if (trace != null) {
+            trace.record(op, target, value, flag, index);
+        }
+    }
+
+    private void writeTrace() {
+        boolean first = tracePath == null;
+        if (first) {
+            String file = "trace-" + LocalDateTime.now().format(FILE_STAMP) + ".jsonl";
+            tracePath = ViewModelConfig.storageDir().resolve("traces").resolve(file);
+            LOGGER.info("Recording viewmodel interaction trace to {}", tracePath);
+        }
+        Path target = tracePath;
+        List<InteractionTrace.Step> steps = List.copyOf(trace.steps());
+        ViewModelConfig.io().run(TRACE_KEY, () -> InteractionTrace.write(target, steps)).exceptionally(error -> {
+            LOGGER.warn("Unable to write viewmodel interaction trace", error);
+            return null;
+        });
+    }
+
+    public enum Slider {
+        SIZE("size", ViewModelConfig::setSize, HandTransform::withSize),
+        POSITION_X("posX", ViewModelConfig::setPositionX, HandTransform::withPositionX),
+        POSITION_Y("posY", ViewModelConfig::setPositionY, HandTransform::withPositionY),
+        POSITION_Z("posZ", ViewModelConfig::setPositionZ, HandTransform::withPositionZ),
+        ROTATION_YAW("yaw", ViewModelConfig::setRotationYaw, HandTransform::withRotationYaw),
+        ROTATION_PITCH("pitch", ViewModelConfig::setRotationPitch, HandTransform::withRotationPitch),
+        ROTATION_ROLL("roll", ViewModelConfig::setRotationRoll, HandTransform::withRotationRoll);
+
+        private final String key;
+        private final FloatSetter main;
+        private final HandSetter offHand;
+
+        Slider(String key, FloatSetter main, HandSetter offHand) {
+            this.key = key;
+            this.main = main;
+            this.offHand = offHand;
+        }
+
+        public String key() {
+            return key;
+        }
+
+        static Slider byKey(String key) {
+            for (Slider slider : values()) {
+                if (slider.key.equals(key)) {
+                    return slider;
+                }
+            }
+            return null;
+        }
+    }
+
+    public enum Toggle {
+        NO_SWING("noSwing", ViewModelConfig::setNoSwing),
+        SCALE_SWING("scaleSwing", ViewModelConfig::setScaleSwing);
+
+        private final String key;
+        private final BooleanSetter setter;
+
+        Toggle(String key, BooleanSetter setter) {
+            this.key = key;
+            this.setter = setter;
+        }
+
+        public String key() {
+            return key;
+        }
+
+        static Toggle byKey(String key) {
+            for (Toggle toggle : values()) {
+                if (toggle.key.equals(key)) {
+                    return toggle;
+                }
+            }
+            return null;
+        }
+    }
+
+    private interface FloatSetter {
+        void set(ViewModelConfig config, float value);
+    }
+
+    private interface HandSetter {
+        HandTransform apply(HandTransform hand, float value);
+    }
+
+    private interface BooleanSetter {
+        void set(ViewModelConfig config, boolean value);
+    }
+}
@@ -0,0 +1,400 @@
+package com.viewmodel;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.UnaryOperator;
+
+/**
+ * Append-only log of field-level profile edits stored next to the config snapshot.
+ * Each line is one small JSON record, so a slider tick costs a few dozen bytes regardless of how many
+ * profiles exist. {@link JournaledProfileStore} folds the log back into its snapshot once it grows too large.
+ */
+final class ProfileJournal {
+    static final String OP_CREATE = "create";
+    static final String OP_SET = "set";
+    static final String OP_RENAME = "rename";
+    static final String OP_DELETE = "delete";
+    static final String OP_SELECT = "select";
+
+    private static final Logger LOGGER = LoggerFactory.getLogger("ViewmodelConfig");
+    private static final Gson GSON = new Gson();
+    // Differs from every real value, so switching the off hand layout on records all of its fields.
+    private static final HandTransform UNSET_HAND = new HandTransform(
+        Float.NaN,
+        Float.NaN,
+        Float.NaN,
+        Float.NaN,
+        Float.NaN,
+        Float.NaN,
+        Float.NaN
+    );
+
+    private final Path path;
+    private long sizeBytes;
+
+    ProfileJournal(Path path) {
+        this.path = path;
+    }
+
+    /**
+     * Reads every intact record. A crash during an append can only tear the final line, so reading
+     * stops at the first malformed record and reports it so the caller can compact the log away.
+     */
+    ReadResult read() {
+        if (Files.notExists(path)) {
+            sizeBytes = 0;
+            return new ReadResult(List.of(), false);
+        }
+
+        List<Entry> entries = new ArrayList<>();
+        boolean torn = false;
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                Entry entry;
+                try {
+                    entry = GSON.fromJson(line, Entry.class);
+                } catch (JsonParseException e) {
+                    entry = null;
+                }
+                if (entry == null || entry.op() == null || entry.profile() == null) {
+                    LOGGER.warn("Ignoring torn viewmodel journal tail after {} records", entries.size());
+                    torn = true;
+                    break;
+                }
+                entries.add(entry);
+            }
+            sizeBytes = Files.size(path);
+        } catch (IOException e) {
+            LOGGER.error("Failed to read viewmodel journal", e);
+            torn = true;
+        }
+        return new ReadResult(entries, torn);
+    }
+
+    void append(List<Entry> entries) throws IOException {
+        StringBuilder lines = new StringBuilder(entries.size() * 64);
+        for (Entry entry : entries) {
+            GSON.toJson(entry, lines);
+            lines.append('\n');
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(lines.toString().getBytes(StandardCharsets.UTF_8));
+
+        Files.createDirectories(Objects.requireNonNull(path.getParent()));
+        try (FileChannel channel = FileChannel.open(
+            path,
+            StandardOpenOption.CREATE,
+            StandardOpenOption.WRITE,
+            StandardOpenOption.APPEND
+        )) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false);
+        }
+        sizeBytes += buffer.capacity();
+        AtomicFiles.countWritten(buffer.capacity());
+    }
+
+    long sizeBytes() {
+        return sizeBytes;
+    }
+
+    void truncate() throws IOException {
+        Files.deleteIfExists(path);
+        sizeBytes = 0;
+    }
+
+    static List<Entry> describe(ProfileChange change) {
+        return switch (change) {
+            case ProfileChange.Added added -> describeNew(added.profile());
+            case ProfileChange.Changed changed -> diff(changed.previous(), changed.updated());
+            case ProfileChange.Removed removed -> List.of(delete(removed.profile().name()));
+            case ProfileChange.ActiveChanged active -> List.of(select(active.active().name()));
+        };
+    }
+
+    private static List<Entry> describeNew(ViewModelProfile profile) {
+        List<Entry> entries = new ArrayList<>();
+        entries.add(new Entry(0, OP_CREATE, profile.name(), null, null, null, null));
+        entries.addAll(diff(ViewModelProfile.defaults(profile.name()), profile));
+        return entries;
+    }
+
+    private static List<Entry> diff(ViewModelProfile before, ViewModelProfile after) {
+        List<Entry> entries = new ArrayList<>();
+        String name = before.name();
+        if (!name.equals(after.name())) {
+            entries.add(new Entry(0, OP_RENAME, name, null, null, null, after.name()));
+            name = after.name();
+        }
+        diffFloat(entries, name, "size", before.size(), after.size());
+        diffFloat(entries, name, "posX", before.positionX(), after.positionX());
+        diffFloat(entries, name, "posY", before.positionY(), after.positionY());
+        diffFloat(entries, name, "posZ", before.positionZ(), after.positionZ());
+        diffFloat(entries, name, "yaw", before.rotationYaw(), after.rotationYaw());
+        diffFloat(entries, name, "pitch", before.rotationPitch(), after.rotationPitch());
+        diffFloat(entries, name, "roll", before.rotationRoll(), after.rotationRoll());
+        diffFlag(entries, name, "noSwing", before.noSwing(), after.noSwing());
+        diffFlag(entries, name, "scaleSwing", before.scaleSwing(), after.scaleSwing());
+        diffOffHand(entries, name, before.offHand(), after.offHand());
+        return entries;
+    }
+
+    /**
+     * Off hand fields are only written while the profile has its own off hand layout; replay ignores them
+     * otherwise, which keeps coalesced batches correct whichever way the toggle went last.
+     */
+    private static void diffOffHand(List<Entry> entries, String profile, HandTransform before, HandTransform after) {
+        if (after == null) {
+            diffFlag(entries, profile, "offHand", before != null, false);
+            return;
+        }
+        if (before == null) {
+            diffFlag(entries, profile, "offHand", false, true);
+            before = UNSET_HAND;
+        }
+        diffFloat(entries, profile, "offSize", before.size(), after.size());
+        diffFloat(entries, profile, "offPosX", before.positionX(), after.positionX());
+        diffFloat(entries, profile, "offPosY", before.positionY(), after.positionY());
+        diffFloat(entries, profile, "offPosZ", before.positionZ(), after.positionZ());
+        diffFloat(entries, profile, "offYaw", before.rotationYaw(), after.rotationYaw());
+        diffFloat(entries, profile, "offPitch", before.rotationPitch(), after.rotationPitch());
+        diffFloat(entries, profile, "offRoll", before.rotationRoll(), after.rotationRoll());
+    }
+
+    private static Entry delete(String profile) {
+        return new Entry(0, OP_DELETE, profile, null, null, null, null);
+    }
+
+    private static Entry select(String profile) {
+        return new Entry(0, OP_SELECT, profile, null, null, null, null);
+    }
+
+    /**
+     * Drops field writes that a later write in the same batch overrides. Structural records
+     * (create/rename/delete) act as barriers so names always resolve the way they did when recorded.
+     */
+    static List<Entry> coalesce(List<Entry> batch) {
+        List<Entry> result = new ArrayList<>(batch.size());
+        Map<String, Entry> run = new LinkedHashMap<>();
+        Entry lastSelect = null;
+        for (Entry entry : batch) {
+            switch (entry.op()) {
+                case OP_SET -> run.put(entry.profile().toLowerCase(Locale.ROOT) + '\n' + entry.field(), entry);
+                case OP_SELECT -> lastSelect = entry;
+                default -> {
+                    result.addAll(run.values());
+                    run.clear();
+                    if (lastSelect != null) {
+                        result.add(lastSelect);
+                        lastSelect = null;
+                    }
+                    result.add(entry);
+                }
+            }
+        }
+        result.addAll(run.values());
+        if (lastSelect != null) {
+            result.add(lastSelect);
+        }
+        return result;
+    }
+
+    private static void diffFloat(List<Entry> entries, String profile, String field, float before, float after) {
+        if (Float.compare(before, after) != 0) {
+            entries.add(new Entry(0, OP_SET, profile, field, after, null, null));
+        }
+    }
+
+    private static void diffFlag(List<Entry> entries, String profile, String field, boolean before, boolean after) {
+        if (before != after) {
+            entries.add(new Entry(0, OP_SET, profile, field, null, after, null));
+        }
+    }
+
+    /**
+     * One journal line. Only the components relevant to {@code op} are set; Gson omits the rest.
+     */
+    record Entry(long seq, String op, String profile, String field, Float value, Boolean flag, String name) {
+        Entry withSeq(long newSeq) {
+            return new Entry(newSeq, op, profile, field, value, flag, name);
+        }
+    }
+
+    record ReadResult(List<Entry> entries, boolean torn) {}
+
+    /**
+     * The profile list as it exists on disk: snapshot plus every journal record applied so far.
+     */
+    static final class Model {
+        // Columns rather than records, so a 100k profile library stays a few arrays while it is resident.
+        private final ProfileColumns profiles;
+        private String active;
+        private long sequence;
+
+        Model(List<ViewModelProfile> profiles, String active, long sequence) {
+            this(ProfileColumns.of(profiles), active, sequence);
+        }
+
+        /**
+         * Takes ownership of {@code profiles}.
+         */
+        Model(ProfileColumns profiles, String active, long sequence) {
+            this.profiles = profiles;
+            this.active = active;
+            this.sequence = sequence;
+        }
+
+        /**
+         * Read-only view of the profiles.
+         */
+        List<ViewModelProfile> profiles() {
+            return profiles.asList();
+        }
+
+        ProfileColumns columns() {
+            return profiles;
+        }
+
+        String active() {
+            return active;
+        }
+
+        long sequence() {
+            return sequence;
+        }
+
+        ViewModelProfile find(String name) {
+            int index = indexOf(name);
+            return index >= 0 ? profiles.get(index) : null;
+        }
+
+        /**
+         * Stamps a fresh batch with sequence numbers and applies it. Field writes and selects that leave the
+         * model as it already is are dropped, so a batch that nets out to nothing appends nothing.
+         */
+        List<Entry> commit(List<Entry> batch) {
+            List<Entry> stamped = new ArrayList<>(batch.size());
+            for (Entry entry : batch) {
+                if (isNoOp(entry)) {
+                    continue;
+                }
+                Entry next = entry.withSeq(sequence + 1);
+                apply(next);
+                stamped.add(next);
+            }
+            return stamped;
+        }
+
+        /**
+         * Replays records newer than the snapshot; older ones were already folded into it.
+         */
+        void replay(List<Entry> entries) {
+            for (Entry entry : entries) {
+                if (entry.seq() > sequence) {
+                    apply(entry);
+                }
+            }
+        }
+
+        private void apply(Entry entry) {
+            int index = indexOf(entry.profile());
+            switch (entry.op()) {
+                case OP_CREATE -> {
+                    if (index >= 0) {
+                        // A replayed or duplicated line; a second row would shadow the first one's name.
+                        LOGGER.warn("Skipping journal create of existing viewmodel profile {}", entry.profile());
+                    } else {
+                        profiles.add(ViewModelProfile.defaults(entry.profile()));
+                    }
+                }
+                case OP_SET -> {
+                    if (index >= 0) {
+                        profiles.set(index, withField(profiles.get(index), entry));
+                    }
+                }
+                case OP_RENAME -> {
+                    if (index >= 0 && entry.name() != null) {
+                        profiles.rename(index, entry.name());
+                        if (entry.profile().equalsIgnoreCase(active)) {
+                            active = entry.name();
+                        }
+                    }
+                }
+                case OP_DELETE -> {
+                    if (index >= 0) {
+                        profiles.remove(index);
+                    }
+                }
+                case OP_SELECT -> active = entry.profile();
+                default -> LOGGER.warn("Skipping unknown viewmodel journal op {}", entry.op());
+            }
+            sequence = Math.max(sequence, entry.seq());
+        }
+
+        private boolean isNoOp(Entry entry) {
+            return switch (entry.op()) {
+                case OP_SET -> {
+                    int index = indexOf(entry.profile());
+                    yield index >= 0 && withField(profiles.get(index), entry).equals(profiles.get(index));
+                }
+                case OP_SELECT -> entry.profile().equals(active);
+                default -> false;
+            };
+        }
+
+        private int indexOf(String name) {
+            return name == null ? -1 : profiles.indexOf(name);
+        }
+
+        private static ViewModelProfile withField(ViewModelProfile profile, Entry entry) {
+            float value = entry.value() == null ? 0.0f : entry.value();
+            boolean flag = Boolean.TRUE.equals(entry.flag());
+            return switch (String.valueOf(entry.field())) {
+                case "size" -> profile.withSize(value);
+                case "posX" -> profile.withPositionX(value);
+                case "posY" -> profile.withPositionY(value);
+                case "posZ" -> profile.withPositionZ(value);
+                case "yaw" -> profile.withRotationYaw(value);
+                case "pitch" -> profile.withRotationPitch(value);
+                case "roll" -> profile.withRotationRoll(value);
+                case "noSwing" -> profile.withNoSwing(flag);
+                case "scaleSwing" -> profile.withScaleSwing(flag);
+                case "offHand" -> profile.withOffHand(flag ? profile.offHandOrMain() : null);
+                case "offSize" -> withOffHandField(profile, hand -> hand.withSize(value));
+                case "offPosX" -> withOffHandField(profile, hand -> hand.withPositionX(value));
+                case "offPosY" -> withOffHandField(profile, hand -> hand.withPositionY(value));
+                case "offPosZ" -> withOffHandField(profile, hand -> hand.withPositionZ(value));
+                case "offYaw" -> withOffHandField(profile, hand -> hand.withRotationYaw(value));
+                case "offPitch" -> withOffHandField(profile, hand -> hand.withRotationPitch(value));
+                case "offRoll" -> withOffHandField(profile, hand -> hand.withRotationRoll(value));
+                default -> profile;
+            };
+        }
+
+        private static ViewModelProfile withOffHandField(ViewModelProfile profile, UnaryOperator<HandTransform> edit) {
+            return profile.offHand() == null ? profile : profile.withOffHand(edit.apply(profile.offHand()));
+        }
+    }
+}
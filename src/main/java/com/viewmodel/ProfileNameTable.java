@@ -0,0 +1,190 @@
+package com.viewmodel;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Ordered profile names with a case-insensitive index into them. The index is an open-addressing table of
+ * row numbers hashed on the case-folded name, so a library of 100k names costs two ints per name on top of
+ * the strings themselves instead of a map entry, a boxed position and a lower-cased copy of every name.
+ * <p>
+ * Like a map keyed on the normalized name, the first of two equal names wins; a later duplicate stays in
+ * the list but is not found by {@link #indexOf}.
+ */
+final class ProfileNameTable {
+    private static final int MIN_SLOTS = 16;
+
+    private String[] names;
+    private int size;
+    // Row + 1 per slot, 0 for an empty slot; kept at most half full.
+    private int[] slots;
+
+    ProfileNameTable() {
+        this(0);
+    }
+
+    ProfileNameTable(int capacity) {
+        this.names = new String[Math.max(capacity, 4)];
+        this.slots = new int[slotsFor(capacity)];
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    String get(int row) {
+        checkRow(row);
+        return names[row];
+    }
+
+    /**
+     * Returns the row of {@code name}, ignoring case, or {@code -1}.
+     */
+    int indexOf(String name) {
+        int mask = slots.length - 1;
+        for (int slot = hash(name) & mask; slots[slot] != 0; slot = (slot + 1) & mask) {
+            int row = slots[slot] - 1;
+            if (names[row].equalsIgnoreCase(name)) {
+                return row;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Appends {@code name} and returns its row.
+     */
+    int add(String name) {
+        if (size == names.length) {
+            names = Arrays.copyOf(names, names.length * 2);
+        }
+        names[size] = name;
+        if ((size + 1) * 2 > slots.length) {
+            size++;
+            rehash(slotsFor(size));
+        } else {
+            index(size++);
+        }
+        return size - 1;
+    }
+
+    void set(int row, String name) {
+        checkRow(row);
+        unindex(row);
+        names[row] = name;
+        index(row);
+    }
+
+    void remove(int row) {
+        checkRow(row);
+        unindex(row);
+        System.arraycopy(names, row + 1, names, row, size - row - 1);
+        names[--size] = null;
+        int removed = row + 1;
+        for (int slot = 0; slot < slots.length; slot++) {
+            if (slots[slot] > removed) {
+                slots[slot]--;
+            }
+        }
+    }
+
+    void clear() {
+        Arrays.fill(names, 0, size, null);
+        Arrays.fill(slots, 0);
+        size = 0;
+    }
+
+    /**
+     * Read-only view of the names in order; it follows later changes to the table.
+     */
+    List<String> asList() {
+        return new Names();
+    }
+
+    private void index(int row) {
+        String name = names[row];
+        int mask = slots.length - 1;
+        int slot = hash(name) & mask;
+        while (slots[slot] != 0) {
+            if (names[slots[slot] - 1].equalsIgnoreCase(name)) {
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+        slots[slot] = row + 1;
+    }
+
+    /**
+     * Drops {@code row} from the index and moves later entries of its probe run back, so lookups never need
+     * tombstones. Must run while the row still holds the name it was indexed under.
+     */
+    private void unindex(int row) {
+        int mask = slots.length - 1;
+        int hole = hash(names[row]) & mask;
+        while (slots[hole] != row + 1) {
+            if (slots[hole] == 0) {
+                return;
+            }
+            hole = (hole + 1) & mask;
+        }
+        for (int slot = (hole + 1) & mask; slots[slot] != 0; slot = (slot + 1) & mask) {
+            int home = hash(names[slots[slot] - 1]) & mask;
+            boolean reachable = hole <= slot ? hole < home && home <= slot : hole < home || home <= slot;
+            if (!reachable) {
+                slots[hole] = slots[slot];
+                hole = slot;
+            }
+        }
+        slots[hole] = 0;
+    }
+
+    private void rehash(int slotCount) {
+        slots = new int[slotCount];
+        for (int row = 0; row < size; row++) {
+            index(row);
+        }
+    }
+
+    private void checkRow(int row) {
+        if (row < 0 || row >= size) {
+            throw new IndexOutOfBoundsException("Row " + row + " of " + size);
+        }
+    }
+
+    private static int slotsFor(int rows) {
+        int slots = MIN_SLOTS;
+        while (slots < rows * 2) {
+            slots <<= 1;
+        }
+        return slots;
+    }
+
+    /**
+     * Hashes the name folded the way {@link String#equalsIgnoreCase} compares it, without copying it.
+     */
+    private static int hash(String name) {
+        int hash = 0;
+        for (int i = 0; i < name.length(); i++) {
+            hash = 31 * hash + Character.toLowerCase(Character.toUpperCase(name.charAt(i)));
+        }
+        return hash ^ (hash >>> 16);
+    }
+
+    private final class Names extends AbstractList<String> implements RandomAccess {
+        @Override
+        public String get(int index) {
+            return ProfileNameTable.this.get(index);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+}
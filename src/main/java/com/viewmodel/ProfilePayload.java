@@ -0,0 +1,69 @@
+package com.viewmodel;
+
+/**
+ * JSON shape of a single profile, shared by profile shards, exports and the legacy single-file config.
+ * {@code offHand} is omitted while the off hand follows the main hand, which is also how older files read.
+ */
+record ProfilePayload(
+    String name,
+    float size,
+    float posX,
+    float posY,
+    float posZ,
+    float yaw,
+    float pitch,
+    float roll,
+    boolean noSwing,
+    boolean scaleSwing,
+    HandPayload offHand
+) {
+    static ProfilePayload from(ViewModelProfile profile) {
+        return new ProfilePayload(
+            profile.name(),
+            profile.size(),
+            profile.positionX(),
+            profile.positionY(),
+            profile.positionZ(),
+            profile.rotationYaw(),
+            profile.rotationPitch(),
+            profile.rotationRoll(),
+            profile.noSwing(),
+            profile.scaleSwing(),
+            profile.offHand() == null ? null : HandPayload.from(profile.offHand())
+        );
+    }
+
+    ViewModelProfile toProfile() {
+        return new ViewModelProfile(
+            name,
+            size,
+            posX,
+            posY,
+            posZ,
+            yaw,
+            pitch,
+            roll,
+            noSwing,
+            scaleSwing,
+            offHand == null ? null : offHand.toHand()
+        );
+    }
+
+    record HandPayload(float size, float posX, float posY, float posZ, float yaw, float pitch, float roll) {
+        static HandPayload from(HandTransform hand) {
+            return new HandPayload(
+                hand.size(),
+                hand.positionX(),
+                hand.positionY(),
+                hand.positionZ(),
+                hand.rotationYaw(),
+                hand.rotationPitch(),
+                hand.rotationRoll()
+            );
+        }
+
+        HandTransform toHand() {
+            return new HandTransform(size, posX, posY, posZ, yaw, pitch, roll);
+        }
+    }
+}
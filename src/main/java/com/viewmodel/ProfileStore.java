@@ -0,0 +1,83 @@
+package com.viewmodel;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Persistence backend for the profile library.
+ * Every call comes from the config I/O thread, holding the cross-instance {@link ConfigLock} wherever
+ * another game instance sharing the folder could be writing at the same time. The one exception is
+ * {@link #read}, which hydrates profiles for the client thread and must tolerate running alongside a write.
+ */
+interface ProfileStore {
+    /**
+     * Reads the names and order of the persisted library, or returns {@code null} when this store has never
+     * been written. Profiles themselves are fetched one at a time through {@link #read}.
+     */
+    Index load() throws IOException;
+
+    /**
+     * Hydrates a single profile, or returns {@code null} if the store does not know it or cannot read it.
+     * May be called from any thread, concurrently with the other methods.
+     */
+    ViewModelProfile read(String name) throws IOException;
+
+    /**
+     * Persists a batch of edits, touching as little on disk as the layout allows.
+     */
+    void write(List<ProfileChange> batch) throws IOException;
+
+    /**
+     * Rewrites the whole library, used for first runs, migration and imports.
+     */
+    void replaceAll(Library library) throws IOException;
+
+    /**
+     * Directories whose files players, or other game instances sharing the folder, may change while the
+     * game runs. Empty if this layout has nothing to pick up.
+     */
+    default List<Path> watchedDirectories() {
+        return List.of();
+    }
+
+    /**
+     * Catches up with a file in one of the {@link #watchedDirectories} that changed outside this instance,
+     * adopting a shard nothing references yet as a new profile. What the library gained, lost or had changed
+     * is collected for {@link #takeRemoteChanges}.
+     */
+    default void reload(Path file) throws IOException {
+    }
+
+    /**
+     * Returns and forgets the changes other writers made that this instance's profile manager has not been
+     * told about: ones found by {@link #reload} and ones merged in before a write of its own.
+     */
+    default List<Reloaded> takeRemoteChanges() {
+        return List.of();
+    }
+
+    record Index(List<String> names, String activeName) {}
+
+    /**
+     * One profile changed by another writer. {@code previousName} is {@code null} for a new profile and
+     * {@code name} is {@code null} for a removed one; where both are set the profile was renamed, edited or
+     * both. {@code profile} is the new content when it was read, otherwise {@code null}.
+     */
+    record Reloaded(String previousName, String name, ViewModelProfile profile) {}
+
+    record Library(List<ViewModelProfile> profiles, String activeName) {
+        Index index() {
+            return new Index(profiles.stream().map(ViewModelProfile::name).toList(), activeName);
+        }
+
+        ViewModelProfile find(String name) {
+            for (ViewModelProfile profile : profiles) {
+                if (profile.name().equalsIgnoreCase(name)) {
+                    return profile;
+                }
+            }
+            return null;
+        }
+    }
+}
@@ -0,0 +1,598 @@
+package com.viewmodel;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonParseException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Default backend matching the documented layout: one JSON file per profile in {@code configs/},
+ * the active profile name in {@code active.txt}, and a small {@code index.json} that keeps the list order
+ * and maps names to files. Editing a profile rewrites only its own file, switching profiles rewrites only
+ * the active pointer, and the index is touched only when profiles are added, renamed or removed.
+ * <p>
+ * Several game instances may share the folder. The index carries a generation that every write bumps; an
+ * instance that finds a generation it did not write merges that index with its own, profile by profile,
+ * against the index it last saw, and reports what the other instance changed.
+ */
+final class ShardedProfileStore implements ProfileStore {
+    private static final Logger LOGGER = LoggerFactory.getLogger("ViewmodelConfig");
+    private static final Gson GSON = new GsonBuilder().setPrettyPrinting().create();
+    private static final String SHARD_EXTENSION = ".json";
+    private static final int MAX_SLUG_LENGTH = 48;
+    private static final Set<String> RESERVED_FILE_NAMES = Set.of(
+        "con", "prn", "aux", "nul",
+        "com1", "com2", "com3", "com4", "com5", "com6", "com7", "com8", "com9",
+        "lpt1", "lpt2", "lpt3", "lpt4", "lpt5", "lpt6", "lpt7", "lpt8", "lpt9"
+    );
+
+    private final Path shardDir;
+    private final Path indexPath;
+    private final Path activePath;
+    private final List<IndexEntry> entries = new ArrayList<>();
+    // Lookups into entries by normalized name and by normalized file name, so per-profile work during an
+    // import or full rewrite never scans the list. Only changed through the entry helpers below, on the I/O
+    // thread; read() looks names up from any thread, so changes and lookups hold the entriesByName monitor.
+    private final Map<String, IndexEntry> entriesByName = new HashMap<>();
+    private final Map<String, IndexEntry> entriesByFile = new HashMap<>();
+    private final List<Reloaded> remoteChanges = new ArrayList<>();
+    // The index as this instance last read or wrote it: the common ancestor when merging another one's.
+    private List<IndexEntry> base = List.of();
+    private long generation;
+    private String activeName;
+
+    ShardedProfileStore(Path root) {
+        this.shardDir = root.resolve("configs");
+        this.indexPath = root.resolve("index.json");
+        this.activePath = root.resolve("active.txt");
+    }
+
+    /**
+     * Only the index is parsed for profiles it already knows; shard contents are read later through
+     * {@link #read}. Files missing from the index are the exception, as their name lives inside them.
+     */
+    @Override
+    public Index load() throws IOException {
+        IndexPayload index = AtomicFiles.readNewest(indexPath, ShardedProfileStore::readIndex);
+        if (index == null && Files.notExists(shardDir)) {
+            return null;
+        }
+
+        Set<String> presentFiles = new HashSet<>();
+        List<String> listing = new ArrayList<>();
+        if (Files.isDirectory(shardDir)) {
+            try (Stream<Path> files = Files.list(shardDir)) {
+                files.map(file -> file.getFileName().toString())
+                    .filter(file -> file.endsWith(SHARD_EXTENSION))
+                    .sorted()
+                    .forEach(file -> {
+                        listing.add(file);
+                        presentFiles.add(fileKey(file));
+                    });
+            }
+        }
+
+        List<IndexEntry> candidates = new ArrayList<>();
+        Set<String> knownFiles = new HashSet<>();
+        if (index != null) {
+            for (IndexEntry entry : index.profiles()) {
+                if (entry == null || entry.file() == null || !knownFiles.add(fileKey(entry.file()))) {
+                    continue;
+                }
+                if (!presentFiles.contains(fileKey(entry.file()))) {
+                    LOGGER.warn("Profile file {} listed in the index is missing", entry.file());
+                    continue;
+                }
+                candidates.add(entry);
+            }
+        }
+        // Shards dropped into configs/ by hand are not in the index yet; pick them up after the known ones.
+        for (String file : listing) {
+            if (!knownFiles.contains(fileKey(file))) {
+                candidates.add(new IndexEntry(null, file));
+            }
+        }
+
+        List<String> resolvedNames = candidates.parallelStream()
+            .map(entry -> entry.name() != null && !entry.name().isBlank() ? entry.name() : readName(entry))
+            .toList();
+
+        List<String> names = new ArrayList<>(resolvedNames.size());
+        synchronized (entriesByName) {
+            clearEntries();
+            Set<String> seen = new HashSet<>();
+            for (int i = 0; i < resolvedNames.size(); i++) {
+                String name = resolvedNames.get(i);
+                if (name == null) {
+                    continue;
+                }
+                if (!seen.add(nameKey(name))) {
+                    LOGGER.warn("Skipping {}: a profile named {} already exists", candidates.get(i).file(), name);
+                    continue;
+                }
+                addEntry(new IndexEntry(name, candidates.get(i).file()));
+                names.add(name);
+            }
+        }
+
+        activeName = readActive();
+        remoteChanges.clear();
+        generation = index == null ? 0L : index.generation();
+        base = index == null ? List.of() : usable(index);
+        if (index == null || !entries.equals(index.profiles())) {
+            writeIndex();
+        }
+        return new Index(names, activeName);
+    }
+
+    @Override
+    public ViewModelProfile read(String name) {
+        IndexEntry entry = entry(name);
+        if (entry == null) {
+            return null;
+        }
+        ViewModelProfile profile = readShard(entry);
+        // The index owns the name; a shard edited by hand must not rename its profile behind its back.
+        return profile == null || profile.name().equals(entry.name()) ? profile : profile.withName(entry.name());
+    }
+
+    @Override
+    public List<Path> watchedDirectories() {
+        return List.of(indexPath.getParent(), shardDir);
+    }
+
+    @Override
+    public void reload(Path file) throws IOException {
+        if (file.equals(indexPath)) {
+            catchUp();
+            return;
+        }
+        String fileName = file.getFileName().toString();
+        if (!fileName.endsWith(SHARD_EXTENSION) || !file.startsWith(shardDir) || Files.notExists(file)) {
+            return;
+        }
+        // Another instance writes the shard before the index that lists it.
+        catchUp();
+        IndexEntry known = entriesByFile.get(fileKey(fileName));
+        if (known != null) {
+            ViewModelProfile profile = readShard(known);
+            if (profile != null) {
+                AtomicFiles.adopt(file);
+                ViewModelProfile named = profile.name().equals(known.name()) ? profile : profile.withName(known.name());
+                remoteChanges.add(new Reloaded(known.name(), known.name(), named));
+            }
+            return;
+        }
+
+        ViewModelProfile profile = readShard(new IndexEntry(null, fileName));
+        if (profile == null) {
+            return;
+        }
+        if (entry(profile.name()) != null) {
+            LOGGER.warn("Skipping {}: a profile named {} already exists", fileName, profile.name());
+            return;
+        }
+        addEntry(new IndexEntry(profile.name(), fileName));
+        writeIndex();
+        AtomicFiles.adopt(file);
+        remoteChanges.add(new Reloaded(null, profile.name(), profile));
+    }
+
+    @Override
+    public List<Reloaded> takeRemoteChanges() {
+        List<Reloaded> changes = List.copyOf(remoteChanges);
+        remoteChanges.clear();
+        return changes;
+    }
+
+    /**
+     * Another instance's index is merged in first, so an edit to a profile it just removed brings the
+     * profile back instead of writing a shard nothing references. Writing a batch again after it failed
+     * partway leaves the same result as writing it once.
+     */
+    @Override
+    public void write(List<ProfileChange> batch) throws IOException {
+        catchUp();
+        Map<String, ViewModelProfile> dirtyShards = new LinkedHashMap<>();
+        List<String> orphanedFiles = new ArrayList<>();
+        boolean indexDirty = false;
+        boolean activeDirty = false;
+
+        for (ProfileChange change : batch) {
+            switch (change) {
+                case ProfileChange.Added added -> {
+                    ViewModelProfile profile = added.profile();
+                    // Already indexed when a batch that failed halfway is written again.
+                    if (entry(profile.name()) == null) {
+                        addEntry(new IndexEntry(profile.name(), allocateFile(profile.name(), null, true)));
+                        indexDirty = true;
+                    }
+                    dirtyShards.put(nameKey(profile.name()), profile);
+                }
+                case ProfileChange.Changed changed -> {
+                    ViewModelProfile previous = changed.previous();
+                    ViewModelProfile updated = changed.updated();
+                    IndexEntry old = entry(previous.name());
+                    if (old == null) {
+                        if (entry(updated.name()) == null) {
+                            addEntry(new IndexEntry(updated.name(), allocateFile(updated.name(), null, true)));
+                            indexDirty = true;
+                        }
+                    } else if (!previous.name().equals(updated.name())) {
+                        String file = allocateFile(updated.name(), old, true);
+                        replaceEntry(old, new IndexEntry(updated.name(), file));
+                        if (!fileKey(file).equals(fileKey(old.file()))) {
+                            orphanedFiles.add(old.file());
+                        }
+                        dirtyShards.remove(nameKey(previous.name()));
+                        if (previous.name().equalsIgnoreCase(activeName)) {
+                            activeName = updated.name();
+                            activeDirty = true;
+                        }
+                        indexDirty = true;
+                    }
+                    dirtyShards.put(nameKey(updated.name()), updated);
+                }
+                case ProfileChange.Removed removed -> {
+                    IndexEntry old = entry(removed.profile().name());
+                    if (old != null) {
+                        removeEntry(old);
+                        orphanedFiles.add(old.file());
+                        indexDirty = true;
+                    }
+                    dirtyShards.remove(nameKey(removed.profile().name()));
+                }
+                case ProfileChange.ActiveChanged active -> {
+                    activeName = active.active().name();
+                    activeDirty = true;
+                }
+            }
+        }
+
+        // New content first, then the index that points at it, and only then drop files nothing references.
+        for (ViewModelProfile profile : dirtyShards.values()) {
+            IndexEntry entry = entry(profile.name());
+            if (entry != null) {
+                writeShard(entry.file(), profile);
+            }
+        }
+        if (indexDirty) {
+            writeIndex();
+        }
+        deleteUnreferenced(orphanedFiles);
+        if (activeDirty) {
+            writeActive();
+        }
+    }
+
+    /**
+     * Replaces the library outright, whatever another instance wrote; its next write merges from here.
+     * Of two profiles whose names differ only in case the first is kept, as the profile manager does.
+     */
+    @Override
+    public void replaceAll(Library library) throws IOException {
+        IndexPayload onDisk = Files.exists(indexPath) ? AtomicFiles.readNewest(indexPath, ShardedProfileStore::readIndex) : null;
+        if (onDisk != null) {
+            generation = Math.max(generation, onDisk.generation());
+        }
+        List<String> previousFiles = new ArrayList<>();
+        for (IndexEntry entry : entries) {
+            previousFiles.add(entry.file());
+        }
+
+        clearEntries();
+        Set<String> names = new HashSet<>();
+        for (ViewModelProfile profile : library.profiles()) {
+            if (!names.add(nameKey(profile.name()))) {
+                LOGGER.warn("Skipping duplicate profile {}: a profile with that name comes earlier", profile.name());
+                continue;
+            }
+            String file = allocateFile(profile.name(), null, false);
+            addEntry(new IndexEntry(profile.name(), file));
+            writeShard(file, profile);
+        }
+        activeName = library.activeName();
+        writeIndex();
+        deleteUnreferenced(previousFiles);
+        writeActive();
+    }
+
+    private ViewModelProfile readShard(IndexEntry entry) {
+        Path file = shardDir.resolve(entry.file());
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            ProfilePayload payload = GSON.fromJson(reader, ProfilePayload.class);
+            if (payload == null || payload.name() == null || payload.name().isBlank()) {
+                throw new JsonParseException("Profile file has no name");
+            }
+            return payload.toProfile();
+        } catch (Exception e) {
+            LOGGER.error("Skipping unreadable profile file {}", entry.file(), e);
+            return null;
+        }
+    }
+
+    private String readName(IndexEntry entry) {
+        ViewModelProfile profile = readShard(entry);
+        return profile == null ? null : profile.name();
+    }
+
+    private void writeShard(String file, ViewModelProfile profile) throws IOException {
+        ProfilePayload payload = ProfilePayload.from(profile);
+        AtomicFiles.replace(shardDir.resolve(file), out -> writeJson(out, payload));
+    }
+
+    private void writeIndex() throws IOException {
+        generation++;
+        IndexPayload payload = new IndexPayload(generation, List.copyOf(entries));
+        AtomicFiles.write(indexPath, out -> writeJson(out, payload));
+        base = payload.profiles();
+    }
+
+    /**
+     * Merges in an index another instance wrote since this one last read or wrote it, and writes the
+     * result back if this instance had changes of its own that the other index lacks.
+     */
+    private void catchUp() throws IOException {
+        if (Files.notExists(indexPath) || AtomicFiles.isOwnWrite(indexPath)) {
+            return;
+        }
+        IndexPayload onDisk = AtomicFiles.readNewest(indexPath, ShardedProfileStore::readIndex);
+        if (onDisk == null || onDisk.generation() == generation) {
+            return;
+        }
+        List<IndexEntry> theirs = usable(onDisk);
+        List<IndexEntry> merged = merge(base, theirs, entries);
+        recordRemoteChanges(entries, merged);
+        synchronized (entriesByName) {
+            clearEntries();
+            merged.forEach(this::addEntry);
+        }
+        generation = Math.max(generation, onDisk.generation());
+        base = theirs;
+        if (!merged.equals(theirs)) {
+            writeIndex();
+        }
+    }
+
+    private void recordRemoteChanges(List<IndexEntry> before, List<IndexEntry> after) {
+        Map<String, IndexEntry> previous = byFile(before);
+        Set<String> present = new HashSet<>();
+        for (IndexEntry entry : after) {
+            String file = fileKey(entry.file());
+            present.add(file);
+            IndexEntry old = previous.get(file);
+            if (old == null) {
+                remoteChanges.add(new Reloaded(null, entry.name(), null));
+            } else if (!old.name().equals(entry.name())) {
+                remoteChanges.add(new Reloaded(old.name(), entry.name(), null));
+            }
+        }
+        for (IndexEntry entry : before) {
+            if (!present.contains(fileKey(entry.file()))) {
+                remoteChanges.add(new Reloaded(entry.name(), null, null));
+            }
+        }
+    }
+
+    /**
+     * Three-way merge of two indexes that both started from {@code base}, keyed by shard file. Additions,
+     * removals and renames from either side survive; where both renamed the same profile this instance wins.
+     * Their order comes first, followed by profiles only this instance added. A name both sides took for
+     * different files is kept for the other instance's file only.
+     */
+    private static List<IndexEntry> merge(List<IndexEntry> base, List<IndexEntry> theirs, List<IndexEntry> ours) {
+        Map<String, IndexEntry> baseByFile = byFile(base);
+        Map<String, IndexEntry> oursByFile = byFile(ours);
+        Map<String, IndexEntry> theirsByFile = byFile(theirs);
+        List<IndexEntry> merged = new ArrayList<>(Math.max(theirs.size(), ours.size()));
+        Set<String> names = new HashSet<>();
+        for (IndexEntry entry : theirs) {
+            String file = fileKey(entry.file());
+            IndexEntry mine = oursByFile.get(file);
+            IndexEntry original = baseByFile.get(file);
+            if (mine == null && original != null) {
+                continue;
+            }
+            boolean renamedHere = mine != null && original != null && !mine.name().equals(original.name());
+            addUnique(merged, names, renamedHere ? mine : entry);
+        }
+        for (IndexEntry entry : ours) {
+            String file = fileKey(entry.file());
+            if (!theirsByFile.containsKey(file) && !baseByFile.containsKey(file)) {
+                addUnique(merged, names, entry);
+            }
+        }
+        return merged;
+    }
+
+    private static void addUnique(List<IndexEntry> merged, Set<String> names, IndexEntry entry) {
+        if (names.add(nameKey(entry.name()))) {
+            merged.add(entry);
+        } else {
+            LOGGER.warn("Skipping {}: a profile named {} already exists", entry.file(), entry.name());
+        }
+    }
+
+    private static List<IndexEntry> usable(IndexPayload index) {
+        List<IndexEntry> usable = new ArrayList<>(index.profiles().size());
+        for (IndexEntry entry : index.profiles()) {
+            if (entry != null && entry.file() != null && entry.name() != null && !entry.name().isBlank()) {
+                usable.add(entry);
+            }
+        }
+        return usable;
+    }
+
+    private static Map<String, IndexEntry> byFile(List<IndexEntry> list) {
+        Map<String, IndexEntry> byFile = new HashMap<>();
+        for (IndexEntry entry : list) {
+            byFile.putIfAbsent(fileKey(entry.file()), entry);
+        }
+        return byFile;
+    }
+
+    private void writeActive() throws IOException {
+        String name = activeName == null ? "" : activeName;
+        AtomicFiles.replace(activePath, out -> out.write(name.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private String readActive() {
+        if (Files.notExists(activePath)) {
+            return null;
+        }
+        try {
+            String name = Files.readString(activePath, StandardCharsets.UTF_8).trim();
+            return name.isEmpty() ? null : name;
+        } catch (IOException e) {
+            LOGGER.warn("Unable to read active profile pointer", e);
+            return null;
+        }
+    }
+
+    private void deleteUnreferenced(List<String> files) {
+        for (String file : files) {
+            if (isReferenced(file)) {
+                continue;
+            }
+            try {
+                Files.deleteIfExists(shardDir.resolve(file));
+            } catch (IOException e) {
+                LOGGER.warn("Unable to delete old profile file {}", file, e);
+            }
+        }
+    }
+
+    private boolean isReferenced(String file) {
+        return entriesByFile.containsKey(fileKey(file));
+    }
+
+    private IndexEntry entry(String name) {
+        synchronized (entriesByName) {
+            return entriesByName.get(nameKey(name));
+        }
+    }
+
+    private void addEntry(IndexEntry entry) {
+        synchronized (entriesByName) {
+            entries.add(entry);
+            entriesByName.putIfAbsent(nameKey(entry.name()), entry);
+            entriesByFile.putIfAbsent(fileKey(entry.file()), entry);
+        }
+    }
+
+    private void removeEntry(IndexEntry entry) {
+        synchronized (entriesByName) {
+            entries.remove(entry);
+            entriesByName.remove(nameKey(entry.name()), entry);
+            entriesByFile.remove(fileKey(entry.file()), entry);
+        }
+    }
+
+    private void replaceEntry(IndexEntry old, IndexEntry updated) {
+        synchronized (entriesByName) {
+            entries.set(entries.indexOf(old), updated);
+            entriesByName.remove(nameKey(old.name()), old);
+            entriesByFile.remove(fileKey(old.file()), old);
+            entriesByName.putIfAbsent(nameKey(updated.name()), updated);
+            entriesByFile.putIfAbsent(fileKey(updated.file()), updated);
+        }
+    }
+
+    private void clearEntries() {
+        synchronized (entriesByName) {
+            entries.clear();
+            entriesByName.clear();
+            entriesByFile.clear();
+        }
+    }
+
+    /**
+     * Picks a file name derived from the profile name that no other entry uses. File names are compared
+     * case-insensitively because so are most player file systems. With {@code avoidExisting} files already
+     * on disk are passed over too, as another instance may have created them without this index knowing.
+     */
+    private String allocateFile(String name, IndexEntry ignore, boolean avoidExisting) {
+        String slug = slugify(name);
+        String candidate = slug + SHARD_EXTENSION;
+        int counter = 2;
+        while (isTaken(candidate, ignore, avoidExisting)) {
+            candidate = slug + "-" + counter++ + SHARD_EXTENSION;
+        }
+        return candidate;
+    }
+
+    private boolean isTaken(String file, IndexEntry ignore, boolean avoidExisting) {
+        IndexEntry owner = entriesByFile.get(fileKey(file));
+        if (owner != null) {
+            return !owner.equals(ignore);
+        }
+        return avoidExisting && Files.exists(shardDir.resolve(file));
+    }
+
+    /**
+     * ASCII-only so the file name encodes on every platform and locale; names without any ASCII letters
+     * or digits fall back to a numbered {@code profile} file.
+     */
+    private static String slugify(String name) {
+        StringBuilder slug = new StringBuilder(Math.min(name.length(), MAX_SLUG_LENGTH));
+        boolean meaningful = false;
+        for (int i = 0; i < name.length() && slug.length() < MAX_SLUG_LENGTH; i++) {
+            char c = Character.toLowerCase(name.charAt(i));
+            boolean alphanumeric = (c >= 'a' && c <= 'z') || (c >= '0' && c <= '9');
+            meaningful |= alphanumeric;
+            slug.append(alphanumeric || c == '-' || c == '_' ? c : '_');
+        }
+        if (!meaningful) {
+            return "profile";
+        }
+        // Windows refuses device names as file names even with an extension.
+        return RESERVED_FILE_NAMES.contains(slug.toString()) ? "_" + slug : slug.toString();
+    }
+
+    private static String fileKey(String file) {
+        return file.toLowerCase(Locale.ROOT);
+    }
+
+    private static String nameKey(String name) {
+        return name.toLowerCase(Locale.ROOT);
+    }
+
+    private static void writeJson(OutputStream out, Object payload) throws IOException {
+        Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+        GSON.toJson(payload, writer);
+        writer.flush();
+    }
+
+    private static IndexPayload readIndex(Path path) throws IOException {
+        try (Reader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            IndexPayload payload = GSON.fromJson(reader, IndexPayload.class);
+            if (payload == null || payload.profiles() == null) {
+                throw new JsonParseException("Profile index has no entries");
+            }
+            return payload;
+        }
+    }
+
+    private record IndexPayload(long generation, List<IndexEntry> profiles) {}
+
+    private record IndexEntry(String name, String file) {}
+}
@@ -0,0 +1,112 @@
+package com.viewmodel;
+
+import net.minecraft.client.util.math.MatrixStack;
+import net.minecraft.util.math.MathHelper;
+import org.joml.Quaternionf;
+
+/**
+ * Tabulated replacement for the vanilla swing offset in the no-swing and scale-swing modes.
+ * <p>
+ * Every curve is a function of {@code sqrt(swingProgress)}, where it is smooth (in swingProgress itself the
+ * square root has an unbounded slope at the start of a swing). Samples are spaced evenly over that domain
+ * and read back with linear interpolation, so the error of each column is at most {@code h^2 / 8 * M} with
+ * {@code h = 1 / (samples - 1)} and {@code M} the largest second derivative of that column. At the default
+ * 256 samples offsets stay within {@code 2e-5} blocks (times {@code |size - 1|} for scale swing) and
+ * rotations within {@code 0.004} degrees per unit of size; {@code SwingAccuracyCheck} asserts both. Resolution
+ * can be changed with {@code -Dviewmodel.swingSamples}.
+ */
+public final class SwingCurves {
+    private static final int SAMPLES = MathHelper.clamp(Integer.getInteger("viewmodel.swingSamples", 256), 16, 1 << 16);
+    private static final int STRIDE = 6;
+
+    private final boolean noSwing;
+    private final float size;
+    private final float[] table = new float[SAMPLES * STRIDE];
+
+    private SwingCurves(boolean noSwing, float size) {
+        this.noSwing = noSwing;
+        this.size = size;
+        for (int i = 0; i < SAMPLES; i++) {
+            fill(i * STRIDE, (double) i / (SAMPLES - 1));
+        }
+    }
+
+    /**
+     * Returns the curves for the given mode, reusing {@code previous} when neither the mode nor (for
+     * scale swing) the size changed, or {@code null} when vanilla swinging is in effect.
+     */
+    static SwingCurves forMode(SwingCurves previous, boolean noSwing, boolean scaleSwing, float size) {
+        if (!noSwing && !scaleSwing) {
+            return null;
+        }
+        if (previous != null && previous.noSwing == noSwing && (noSwing || Float.compare(previous.size, size) == 0)) {
+            return previous;
+        }
+        return new SwingCurves(noSwing, size);
+    }
+
+    /**
+     * Applies the net swing transform on top of what vanilla already did before {@code applySwingOffset}.
+     * Rotations are built in {@code scratch} so a frame does not allocate.
+     */
+    public void applyTo(MatrixStack matrices, int dir, float swingProgress, Quaternionf scratch) {
+        float u = MathHelper.sqrt(MathHelper.clamp(swingProgress, 0.0f, 1.0f)) * (SAMPLES - 1);
+        int index = Math.min((int) u, SAMPLES - 2);
+        float t = u - index;
+        int base = index * STRIDE;
+
+        matrices.translate(dir * sample(base, t), sample(base + 1, t), sample(base + 2, t));
+        if (!noSwing) {
+            matrices.multiply(scratch.rotationY(dir * sample(base + 3, t) * MathHelper.RADIANS_PER_DEGREE));
+        }
+        matrices.multiply(scratch.rotationZ(dir * sample(base + 4, t) * MathHelper.RADIANS_PER_DEGREE));
+        matrices.multiply(scratch.rotationX(sample(base + 5, t) * MathHelper.RADIANS_PER_DEGREE));
+    }
+
+    /**
+     * One column of the table (in the order {@link #fill} writes them) at {@code swingProgress}, interpolated
+     * exactly as {@link #applyTo} does, without the arm direction applied.
+     */
+    float value(int column, float swingProgress) {
+        float u = MathHelper.sqrt(MathHelper.clamp(swingProgress, 0.0f, 1.0f)) * (SAMPLES - 1);
+        int index = Math.min((int) u, SAMPLES - 2);
+        return sample(index * STRIDE + column, u - index);
+    }
+
+    private float sample(int offset, float t) {
+        float a = table[offset];
+        return a + (table[offset + STRIDE] - a) * t;
+    }
+
+    /**
+     * One row: x offset (before the arm direction), y and z offsets, then yaw (before the arm direction),
+     * roll (before the arm direction) and pitch in degrees.
+     */
+    private void fill(int offset, double u) {
+        double progress = u * u;
+        // The offset vanilla applied just before this hook, which both modes take back out.
+        float baseF = -0.4f * (float) Math.sin(u * Math.PI);
+        float baseG = 0.2f * (float) Math.sin(u * Math.PI * 2.0);
+        float baseH = -0.2f * (float) Math.sin(progress * Math.PI);
+        float sinSq = (float) Math.sin(progress * progress * Math.PI);
+        float sinSqrt = (float) Math.sin(u * Math.PI);
+
+        if (noSwing) {
+            // Rotation only; the vanilla +45 degree yaw is dropped because applyEquipOffset already turned the arm.
+            table[offset] = -baseF;
+            table[offset + 1] = -baseG;
+            table[offset + 2] = -baseH;
+            table[offset + 3] = 0.0f;
+            table[offset + 4] = sinSqrt * 20.0f;
+            table[offset + 5] = sinSqrt * -40.0f;
+        } else {
+            // Offset and rotation both scaled with the item size.
+            table[offset] = baseF * size - baseF;
+            table[offset + 1] = baseG * size - baseG;
+            table[offset + 2] = baseH * size - baseH;
+            table[offset + 3] = sinSq * -20.0f * size;
+            table[offset + 4] = sinSqrt * -20.0f * size;
+            table[offset + 5] = sinSqrt * -80.0f * size;
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package com.viewmodel;
+
+import net.minecraft.util.Arm;
+import net.minecraft.util.Hand;
+
+import java.util.Locale;
+
+/**
+ * Eases the held item between layouts instead of snapping when the active profile changes or a different
+ * rule takes over. Ordinary edits to the current layout (dragging a slider) are never blended.
+ * <p>
+ * Progress is measured in client ticks plus the render tick delta, so it is smooth at any frame rate and
+ * pauses with the game. All state is primitive and preallocated per arm; when no blend is running the
+ * target's own precomputed transform is returned untouched. Swing animation follows the target right away.
+ */
+public final class ViewModelBlend {
+    private static final int FIELDS = 7;
+
+    private final ViewModelTransform[] output = {new ViewModelTransform(), new ViewModelTransform()};
+    private final HandTransform[] lastTarget = new HandTransform[2];
+    private final int[] lastGeneration = new int[2];
+    private final int[] lastRule = new int[2];
+    private final boolean[] active = new boolean[2];
+    private final double[] startTime = new double[2];
+    private final float[][] from = new float[2][FIELDS];
+    private final float[][] shown = new float[2][FIELDS];
+    private final float[] target = new float[FIELDS];
+    private long ticks;
+    private volatile int durationTicks = Math.max(0, Integer.getInteger("viewmodel.blendTicks", 4));
+    private volatile Easing easing = Easing.parse(System.getProperty("viewmodel.blendEasing"));
+
+    public int getDurationTicks() {
+        return durationTicks;
+    }
+
+    /**
+     * Sets how long a transition takes; {@code 0} switches instantly.
+     */
+    public void setDurationTicks(int durationTicks) {
+        this.durationTicks = Math.max(0, durationTicks);
+    }
+
+    public Easing getEasing() {
+        return easing;
+    }
+
+    public void setEasing(Easing easing) {
+        this.easing = easing == null ? Easing.SMOOTH : easing;
+    }
+
+    void tick() {
+        ticks++;
+    }
+
+    /**
+     * The transform to draw {@code hand} in {@code arm} with this frame. {@code generation} and {@code rule} identify which
+     * layout is selected; a change in either starts a blend from whatever is on screen right now.
+     */
+    ViewModelTransform transformFor(Hand hand, Arm arm, ViewModelRenderState state, int generation, int rule, float tickDelta) {
+        int slot = arm == Arm.LEFT ? 0 : 1;
+        double now = ticks + tickDelta;
+        int duration = durationTicks;
+
+        HandTransform previous = lastTarget[slot];
+        if (previous != null && (generation != lastGeneration[slot] || rule != lastRule[slot])) {
+            if (duration > 0) {
+                if (!active[slot]) {
+                    read(previous, shown[slot]);
+                }
+                System.arraycopy(shown[slot], 0, from[slot], 0, FIELDS);
+                startTime[slot] = now;
+                active[slot] = true;
+            } else {
+                active[slot] = false;
+            }
+        }
+        HandTransform layout = state.layout(hand, arm);
+        lastTarget[slot] = layout;
+        lastGeneration[slot] = generation;
+        lastRule[slot] = rule;
+
+        if (!active[slot]) {
+            return state.transform(hand, arm);
+        }
+        float progress = duration <= 0 ? 1.0f : (float) ((now - startTime[slot]) / duration);
+        if (progress >= 1.0f) {
+            active[slot] = false;
+            return state.transform(hand, arm);
+        }
+
+        float eased = easing.apply(Math.max(0.0f, progress));
+        float[] start = from[slot];
+        float[] current = shown[slot];
+        read(layout, target);
+        for (int i = 0; i < FIELDS; i++) {
+            current[i] = start[i] + (target[i] - start[i]) * eased;
+        }
+        ViewModelTransform transform = output[slot];
+        transform.set(current[0], current[1], current[2], current[3], current[4], current[5], current[6]);
+        return transform;
+    }
+
+    /**
+     * Field order matches {@link ViewModelTransform#set}.
+     */
+    private static void read(HandTransform layout, float[] into) {
+        into[0] = layout.rotationPitch();
+        into[1] = layout.rotationYaw();
+        into[2] = layout.rotationRoll();
+        into[3] = layout.size();
+        into[4] = layout.positionX();
+        into[5] = layout.positionY();
+        into[6] = layout.positionZ();
+    }
+
+    public enum Easing {
+        LINEAR,
+        /** Smoothstep: eases in and out. */
+        SMOOTH,
+        /** Cubic: starts fast and settles gently. */
+        EASE_OUT;
+
+        float apply(float t) {
+            return switch (this) {
+                case LINEAR -> t;
+                case SMOOTH -> t * t * (3.0f - 2.0f * t);
+                case EASE_OUT -> {
+                    float inverse = 1.0f - t;
+                    yield 1.0f - inverse * inverse * inverse;
+                }
+            };
+        }
+
+        static Easing parse(String value) {
+            if (value != null) {
+                for (Easing easing : values()) {
+                    if (easing.name().equals(value.trim().toUpperCase(Locale.ROOT))) {
+                        return easing;
+                    }
+                }
+            }
+            return SMOOTH;
+        }
+    }
+}
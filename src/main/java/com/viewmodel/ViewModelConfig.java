@@ -2,8 +2,13 @@ package com.viewmodel;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import com.google.gson.JsonIOException;
 import com.google.gson.JsonParseException;
 import net.fabricmc.loader.api.FabricLoader;
+import net.minecraft.client.MinecraftClient;
+import net.minecraft.item.ItemStack;
+import net.minecraft.util.Arm;
+import net.minecraft.util.Hand;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -13,23 +18,69 @@ import java.io.Writer;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.StandardOpenOption;
+import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
 import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * Mutable backing config queried by HeldItemRenderer mixins.
  * Values are kept in a singleton so they are easy to mutate from both Kotlin/Java UI pieces.
+ * Every change republishes an immutable {@link ViewModelRenderState}, which is all the render thread reads.
  */
 public final class ViewModelConfig {
     public static final ViewModelConfig current = new ViewModelConfig();
     private static final ViewModelProfileManager PROFILE_MANAGER = new ViewModelProfileManager();
     private static final Logger LOGGER = LoggerFactory.getLogger("ViewmodelConfig");
     private static final Gson GSON = new GsonBuilder().setPrettyPrinting().create();
-    private static final Path CONFIG_PATH = FabricLoader.getInstance()
-        .getConfigDir()
-        .resolve("viewmodel-viewmodel.json");
+    private static final Path CONFIG_DIR = configDir();
+    private static final Path STORAGE_DIR = CONFIG_DIR.resolve("viewmodel");
+    private static final Path LEGACY_CONFIG_PATH = CONFIG_DIR.resolve("viewmodel-viewmodel.json");
+    private static final Path LEGACY_BINARY_PATH = CONFIG_DIR.resolve("viewmodel-viewmodel.bin");
+    private static final Path LEGACY_JOURNAL_PATH = CONFIG_DIR.resolve("viewmodel-viewmodel.journal");
+    private static final long SAVE_IDLE_MILLIS = 400L;
+    private static final long SAVE_MAX_DELAY_MILLIS = 2_000L;
+    private static final long SHUTDOWN_FLUSH_SECONDS = 10L;
+    private static final long WATCH_DEBOUNCE_MILLIS = Math.max(0L, Long.getLong("viewmodel.watchDebounceMillis", 300L));
+    private static final ProfileStore STORE = createStore();
+    private static final List<ProfileChange> PENDING_CHANGES = new ArrayList<>();
+    private static final AtomicReference<ProfileStore.Library> PENDING_FULL_WRITE = new AtomicReference<>();
+    // What the writer has taken off the queue but not yet written; guarded by PENDING_CHANGES like the queue.
+    private static final List<ProfileChange> IN_FLIGHT_CHANGES = new ArrayList<>();
+    private static ProfileStore.Library inFlightFullWrite;
+    private static final ConfigIo IO = new ConfigIo("Viewmodel config I/O");
+    private static final ConfigLock LOCK = new ConfigLock(STORAGE_DIR.resolve(".lock"));
+    private static final ConfigWriteBehind WRITE_BEHIND = new ConfigWriteBehind(
+        IO,
+        SAVE_IDLE_MILLIS,
+        SAVE_MAX_DELAY_MILLIS,
+        ViewModelConfig::writePending
+    );
+    private static final ItemBindings ITEM_BINDINGS = new ItemBindings(
+        STORAGE_DIR.resolve("bindings.json"),
+        ViewModelConfig::bindingsOrRulesChanged
+    );
+    private static final ViewModelRules RULES = new ViewModelRules(
+        STORAGE_DIR.resolve("rules.json"),
+        ViewModelConfig::bindingsOrRulesChanged
+    );
+    private static final ViewModelBlend BLEND = new ViewModelBlend();
+    // Set by the background load until the client thread switches to it.
+    private static final AtomicReference<Loaded> LOADED = new AtomicReference<>();
+    // Bumped whenever a different profile becomes active; edits to the active one leave it alone.
+    private static volatile int activeGeneration;
+    private static volatile CompletableFuture<Void> pendingLoad;
+    private static volatile ConfigWatcher watcher;
+    private static volatile Executor remotePublisher;
 
     private float size = ViewModelProfile.baseline().size();
     private float positionX = ViewModelProfile.baseline().positionX();
@@ -40,6 +91,9 @@ public final class ViewModelConfig {
     private float rotationRoll = ViewModelProfile.baseline().rotationRoll();
     private boolean noSwing = ViewModelProfile.baseline().noSwing();
     private boolean scaleSwing = ViewModelProfile.baseline().scaleSwing();
+    private HandTransform offHand = ViewModelProfile.baseline().offHand();
+    private long renderVersion;
+    private volatile ViewModelRenderState renderState = ViewModelRenderState.of(0L, ViewModelProfile.baseline());
 
     private ViewModelConfig() {}
 
@@ -47,68 +101,615 @@ public final class ViewModelConfig {
         return PROFILE_MANAGER;
     }
 
+    public static ItemBindings itemBindings() {
+        return ITEM_BINDINGS;
+    }
+
+    public static ViewModelRules rules() {
+        return RULES;
+    }
+
+    public static ViewModelBlend blend() {
+        return BLEND;
+    }
+
+    static Path storageDir() {
+        return STORAGE_DIR;
+    }
+
+    /**
+     * The thread all config file access goes through.
+     */
+    static ConfigIo io() {
+        return IO;
+    }
+
+    /**
+     * The render state for one held stack: its bound profile if it has one, the active profile otherwise,
+     * with the first matching rule applied on top.
+     */
+    public static ViewModelRenderState renderStateFor(ItemStack stack, Arm arm) {
+        ViewModelRenderState global = current.renderState();
+        if (stack.isEmpty()) {
+            return global;
+        }
+        ViewModelRenderState bound = ITEM_BINDINGS.resolve(stack, global);
+        return RULES.apply(stack, arm, bound, global, ITEM_BINDINGS);
+    }
+
+    /**
+     * The transform to draw a non-empty stack with, blended if its layout just changed. Must directly follow
+     * {@link #renderStateFor} for the same stack, whose rule pick it reads.
+     */
+    public static ViewModelTransform transformFor(Hand hand, Arm arm, ViewModelRenderState state, float tickDelta) {
+        return BLEND.transformFor(hand, arm, state, activeGeneration, RULES.lastApplied(), tickDelta);
+    }
+
+    static void tick(MinecraftClient client) {
+        RULES.tick(client);
+        BLEND.tick();
+    }
+
+    /**
+     * Drops every per-item resolution after the world's item tags changed.
+     */
+    public static void tagsReloaded() {
+        ITEM_BINDINGS.invalidate();
+        RULES.invalidate();
+    }
+
+    /**
+     * Reads the config and switches to it on the calling thread.
+     */
     public static synchronized void load() {
-        ConfigPayload payload = readPayload();
-        PROFILE_MANAGER.loadProfiles(deserializeProfiles(payload.profiles()), payload.activeProfile());
+        publish(IO.call(ViewModelConfig::readLibrary).join());
+    }
+
+    /**
+     * Reads the config on a background thread so client init does not wait on disk, Gson or a first-run
+     * write. Until it is done the render path shows the baseline profile. The result is then handed to
+     * {@code publisher} (the client thread), so the screen and the render hooks switch over between two
+     * frames.
+     */
+    public static synchronized void loadAsync(Executor publisher) {
+        long started = System.nanoTime();
+        pendingLoad = IO.call(ViewModelConfig::readLibrary).handle((loaded, error) -> {
+            if (error != null) {
+                LOGGER.error("Failed to load viewmodel config, keeping the default profile", error);
+            } else {
+                LOADED.set(loaded);
+                LOGGER.info(
+                    "Loaded {} viewmodel profiles in the background in {} ms",
+                    loaded.index().names().size(),
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started)
+                );
+            }
+            publisher.execute(ViewModelConfig::publishLoaded);
+            return null;
+        });
+    }
+
+    /**
+     * Finishes a {@link #loadAsync} that is still in flight, waiting for the read if needed. Called on the
+     * client thread before anything edits profiles, so no edit lands on the baseline and is then replaced.
+     */
+    public static void awaitLoad() {
+        CompletableFuture<Void> read = pendingLoad;
+        if (read != null) {
+            read.join();
+            publishLoaded();
+        }
+    }
+
+    /**
+     * Picks up profile files changed while the game runs, whether edited or dropped in by a player or written
+     * by another game instance sharing the folder, and hands what changed to {@code publisher} (the client
+     * thread). Changes another instance made that surface while merging before a write of this one's are
+     * handed over the same way. {@code -Dviewmodel.watch=false} stops watching; merging always happens.
+     */
+    public static synchronized void watchExternalEdits(Executor publisher) {
+        remotePublisher = publisher;
+        if (watcher != null || !Boolean.parseBoolean(System.getProperty("viewmodel.watch", "true"))) {
+            return;
+        }
+        ConfigWatcher started = new ConfigWatcher(IO, WATCH_DEBOUNCE_MILLIS, ViewModelConfig::reloadExternal);
+        watcher = started;
+        IO.run(() -> {
+            List<Path> directories = STORE.watchedDirectories();
+            if (!directories.isEmpty()) {
+                started.start(directories);
+            }
+        }).exceptionally(error -> {
+            LOGGER.warn("Unable to watch the viewmodel config directory", error);
+            return null;
+        });
+    }
+
+    /**
+     * Runs on the I/O thread after the watched directories went quiet. Queued edits are written first, so the
+     * store is current before anything is adopted, and where the game and an outside editor changed the same
+     * profile at once the game wins. Files still exactly as this instance wrote them are skipped.
+     */
+    private static void reloadExternal(Set<Path> files) {
+        LOCK.lock();
+        try {
+            WRITE_BEHIND.flush();
+            for (Path file : files) {
+                if (AtomicFiles.isScratchFile(file) || !Files.isRegularFile(file) || AtomicFiles.isOwnWrite(file)) {
+                    continue;
+                }
+                try {
+                    STORE.reload(file);
+                } catch (IOException e) {
+                    LOGGER.error("Unable to reload viewmodel profile file {}", file.getFileName(), e);
+                }
+            }
+        } finally {
+            LOCK.unlock();
+        }
+        publishRemoteChanges();
     }
 
-    public static synchronized void save() {
-        ConfigPayload payload = snapshotPayload();
-        writePayload(payload);
+    /**
+     * Hands changes other writers made to the profile manager on the client thread. Runs on the I/O thread.
+     */
+    private static void publishRemoteChanges() {
+        List<ProfileStore.Reloaded> changes = STORE.takeRemoteChanges();
+        Executor publisher = remotePublisher;
+        if (changes.isEmpty() || publisher == null) {
+            return;
+        }
+        for (ProfileStore.Reloaded change : changes) {
+            LOGGER.info(
+                "Picked up viewmodel profile {} changed outside this game",
+                change.name() != null ? change.name() : change.previousName()
+            );
+        }
+        publisher.execute(() -> {
+            for (ProfileStore.Reloaded change : changes) {
+                PROFILE_MANAGER.reloaded(change);
+            }
+            prefetchProfiles();
+        });
     }
 
-    private static ConfigPayload snapshotPayload() {
+    private static void publishLoaded() {
+        Loaded loaded = LOADED.getAndSet(null);
+        if (loaded != null) {
+            publish(loaded);
+        }
+        pendingLoad = null;
+    }
+
+    private static Loaded readLibrary() {
+        long start = HookTimings.start();
+        FlightEvents.ConfigLoad event = new FlightEvents.ConfigLoad();
+        event.begin();
+        synchronized (PENDING_CHANGES) {
+            PENDING_CHANGES.clear();
+            PENDING_FULL_WRITE.set(null);
+        }
+        ProfileStore.Index index;
+        LOCK.lock();
+        try {
+            index = loadStore();
+            if (index == null) {
+                ProfileStore.Library library = readLegacy();
+                boolean migrated = library != null;
+                if (!migrated) {
+                    library = new ProfileStore.Library(defaultProfiles(), "Default");
+                }
+                if (!replaceStore(library)) {
+                    // Keep the library reachable for hydration and let the writer retry.
+                    PENDING_FULL_WRITE.set(library);
+                    WRITE_BEHIND.markDirty();
+                } else if (migrated) {
+                    retireLegacyFiles();
+                }
+                index = library.index();
+                event.migrated = true;
+            }
+            ITEM_BINDINGS.load();
+            RULES.load();
+        } finally {
+            LOCK.unlock();
+        }
+        // Hydrated here so switching over on the client thread touches no files.
+        ViewModelProfile active = index.activeName() != null ? hydrate(index.activeName()) : null;
+        HookTimings.record(HookTimings.Probe.LOAD, start);
+        event.storage = STORE.getClass().getSimpleName();
+        event.profileCount = index.names().size();
+        event.commit();
+        return new Loaded(index, active);
+    }
+
+    private static void publish(Loaded loaded) {
+        ViewModelProfile active = loaded.active();
+        PROFILE_MANAGER.loadProfiles(
+            loaded.index().names(),
+            loaded.index().activeName(),
+            name -> active != null && active.name().equalsIgnoreCase(name) ? active : hydrate(name)
+        );
+        prefetchProfiles();
+    }
+
+    /**
+     * Queues a rewrite of every profile. Everyday edits go through the profile callbacks below instead,
+     * which only touch what changed. The handle completes once the rewrite is on disk.
+     */
+    public static CompletableFuture<Void> save() {
+        ProfileStore.Library library = new ProfileStore.Library(
+            PROFILE_MANAGER.snapshot(),
+            PROFILE_MANAGER.getActiveProfile().name()
+        );
+        synchronized (PENDING_CHANGES) {
+            // The snapshot already contains every queued edit.
+            PENDING_CHANGES.clear();
+            PENDING_FULL_WRITE.set(library);
+        }
+        return WRITE_BEHIND.markDirty();
+    }
+
+    /**
+     * Writes any queued state now instead of waiting out the idle window. The write runs on the I/O thread;
+     * the handle completes once it is on disk.
+     */
+    public static CompletableFuture<Void> flush() {
+        return WRITE_BEHIND.flush();
+    }
+
+    /**
+     * Writes everything queued and waits until the I/O thread has finished all work submitted so far.
+     * For benchmarks and headless tools that need to look at the files afterwards.
+     */
+    public static void awaitQuiescence() {
+        flush().join();
+        IO.awaitIdle();
+    }
+
+    public static void shutdown() {
+        ConfigWatcher running = watcher;
+        if (running != null) {
+            running.close();
+        }
+        awaitLoad();
+        try {
+            flush().get(SHUTDOWN_FLUSH_SECONDS, TimeUnit.SECONDS);
+        } catch (TimeoutException e) {
+            LOGGER.error("Viewmodel config was not written within {} s of shutdown", SHUTDOWN_FLUSH_SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            LOGGER.error("Unable to write viewmodel config on shutdown", e.getCause());
+        }
+        SaveStats stats = saveStats();
+        LOGGER.info(
+            "Viewmodel config saves: {} requested, {} written, {} skipped as unchanged, {} coalesced",
+            stats.requested(),
+            stats.performed(),
+            stats.skipped(),
+            stats.coalesced()
+        );
+    }
+
+    public static SaveStats saveStats() {
+        return WRITE_BEHIND.stats();
+    }
+
+    /**
+     * Writes every profile into one JSON file, independent of the storage layout, for sharing or backup.
+     */
+    public static void exportJson(Path target) throws IOException {
         List<ViewModelProfile> profiles = PROFILE_MANAGER.snapshot();
-        if (profiles.isEmpty()) {
-            profiles.add(ViewModelProfile.defaults("Default"));
+        String activeName = PROFILE_MANAGER.getActiveProfile().name();
+        ConfigIo.await(IO.run(() -> writeJson(target, profiles, activeName)));
+    }
+
+    static void writeJson(Path target, List<ViewModelProfile> profiles, String activeName) throws IOException {
+        ConfigPayload payload = new ConfigPayload(activeName, 0L, serializeProfiles(profiles));
+        Files.createDirectories(Objects.requireNonNull(target.toAbsolutePath().getParent()));
+        try (Writer writer = Files.newBufferedWriter(target, StandardCharsets.UTF_8)) {
+            GSON.toJson(payload, writer);
         }
-        String activeName = PROFILE_MANAGER.profiles().isEmpty()
-            ? "Default"
-            : PROFILE_MANAGER.getActiveProfile().name();
-        return new ConfigPayload(activeName, serializeProfiles(profiles));
     }
 
-    private static ConfigPayload defaultPayload() {
-        List<ViewModelProfile> defaults = new ArrayList<>();
-        defaults.add(ViewModelProfile.defaults("Default"));
-        return new ConfigPayload("Default", serializeProfiles(defaults));
+    /**
+     * Replaces every profile with the contents of a JSON export and persists the result.
+     */
+    public static synchronized void importJson(Path source) throws IOException {
+        ProfileStore.Library library = ConfigIo.await(IO.call(() -> {
+            ProfileJournal.Model imported = readJson(source);
+            if (imported.profiles().isEmpty()) {
+                throw new IOException("Import contains no profiles");
+            }
+            ProfileStore.Library replacement = new ProfileStore.Library(imported.profiles(), imported.active());
+            synchronized (PENDING_CHANGES) {
+                PENDING_CHANGES.clear();
+                PENDING_FULL_WRITE.set(null);
+            }
+            LOCK.lock();
+            try {
+                if (!replaceStore(replacement)) {
+                    throw new IOException("Unable to write imported profiles");
+                }
+            } finally {
+                LOCK.unlock();
+            }
+            return replacement;
+        }));
+        ProfileStore.Index index = library.index();
+        PROFILE_MANAGER.loadProfiles(index.names(), index.activeName(), ViewModelConfig::hydrate);
+        prefetchProfiles();
     }
 
-    private static ConfigPayload readPayload() {
-        if (Files.notExists(CONFIG_PATH)) {
-            ConfigPayload defaults = defaultPayload();
-            writePayload(defaults);
-            return defaults;
+    static void profileAdded(ViewModelProfile profile) {
+        enqueue(new ProfileChange.Added(profile));
+    }
+
+    static void profileChanged(ViewModelProfile previous, ViewModelProfile updated) {
+        if (!previous.equals(updated)) {
+            enqueue(new ProfileChange.Changed(previous, updated));
+        }
+        if (!previous.name().equals(updated.name())) {
+            ITEM_BINDINGS.profileRenamed(previous.name(), updated.name());
+            RULES.profileRenamed(previous.name(), updated.name());
         }
+    }
 
-        try (Reader reader = Files.newBufferedReader(CONFIG_PATH, StandardCharsets.UTF_8)) {
-            ConfigPayload payload = GSON.fromJson(reader, ConfigPayload.class);
-            if (payload == null || payload.profiles() == null || payload.profiles().isEmpty()) {
-                throw new JsonParseException("Config missing profiles");
+    static void profileRemoved(ViewModelProfile profile) {
+        enqueue(new ProfileChange.Removed(profile));
+        ITEM_BINDINGS.profileRemoved(profile.name());
+        RULES.profileRemoved(profile.name());
+    }
+
+    static void activeChanged(ViewModelProfile active) {
+        enqueue(new ProfileChange.ActiveChanged(active));
+        prefetchProfiles();
+        activeGeneration++;
+    }
+
+    private static void bindingsOrRulesChanged() {
+        WRITE_BEHIND.markDirty();
+        prefetchProfiles();
+    }
+
+    /**
+     * Hydrates the profiles the render path may switch to on the I/O thread. Queued after the change that
+     * prompted it, so it reads the same edits {@link #hydrate} would.
+     */
+    private static void prefetchProfiles() {
+        ITEM_BINDINGS.prefetch(RULES.profileNames(), ViewModelConfig::hydrate);
+    }
+
+    private static void enqueue(ProfileChange change) {
+        synchronized (PENDING_CHANGES) {
+            PENDING_CHANGES.add(change);
+        }
+        WRITE_BEHIND.markDirty();
+    }
+
+    /**
+     * Returns whether anything on disk changed; edits that net out to what was last written leave it alone.
+     */
+    private static boolean writePending() {
+        long start = HookTimings.start();
+        FlightEvents.ConfigSave event = new FlightEvents.ConfigSave();
+        event.begin();
+        long bytesBefore = AtomicFiles.bytesWritten();
+        long filesBefore = AtomicFiles.filesWritten();
+        long skippedBefore = AtomicFiles.filesSkipped();
+        List<ProfileChange> batch;
+        ProfileStore.Library fullWrite;
+        synchronized (PENDING_CHANGES) {
+            batch = new ArrayList<>(PENDING_CHANGES);
+            PENDING_CHANGES.clear();
+            fullWrite = PENDING_FULL_WRITE.getAndSet(null);
+            // Stays visible to hydrate() until it is on disk, so a read never sees an edit that is neither
+            // queued nor written.
+            IN_FLIGHT_CHANGES.addAll(batch);
+            inFlightFullWrite = fullWrite;
+        }
+        LOCK.lock();
+        try {
+            boolean written = fullWrite == null || replaceStore(fullWrite);
+            if (written && !batch.isEmpty()) {
+                try {
+                    STORE.write(batch);
+                } catch (IOException | JsonIOException e) {
+                    LOGGER.error("Unable to write viewmodel profiles, will retry", e);
+                    written = false;
+                }
             }
-            return payload;
-        } catch (Exception e) {
-            LOGGER.error("Failed to load viewmodel config, falling back to defaults", e);
-            ConfigPayload defaults = defaultPayload();
-            writePayload(defaults);
-            return defaults;
+            if (!written) {
+                requeue(fullWrite, batch);
+            }
+            synchronized (PENDING_CHANGES) {
+                IN_FLIGHT_CHANGES.clear();
+                inFlightFullWrite = null;
+            }
+            // Both are attempted even if the first fails.
+            boolean bindingsWritten = ITEM_BINDINGS.writeIfDirty();
+            boolean rulesWritten = RULES.writeIfDirty();
+            if (!bindingsWritten || !rulesWritten) {
+                WRITE_BEHIND.markDirty();
+            }
+        } finally {
+            LOCK.unlock();
+        }
+        publishRemoteChanges();
+        if (event.shouldCommit()) {
+            event.bytesWritten = AtomicFiles.bytesWritten() - bytesBefore;
+            event.profileCount = fullWrite != null ? fullWrite.profiles().size() : profilesTouched(batch);
+            event.changes = batch.size();
+            event.fullRewrite = fullWrite != null;
+            event.filesSkipped = (int) (AtomicFiles.filesSkipped() - skippedBefore);
+        }
+        HookTimings.record(HookTimings.Probe.SAVE, start);
+        event.commit();
+        return AtomicFiles.filesWritten() != filesBefore;
+    }
+
+    /**
+     * Puts a write that failed back in front of anything queued since, so the write-behind retries it. The
+     * stores apply a batch idempotently, so one that was partly written can simply be written again. A
+     * newer full write replaces the library anyway and wins over the one that failed.
+     */
+    private static void requeue(ProfileStore.Library fullWrite, List<ProfileChange> batch) {
+        synchronized (PENDING_CHANGES) {
+            if (fullWrite != null && !PENDING_FULL_WRITE.compareAndSet(null, fullWrite)) {
+                return;
+            }
+            PENDING_CHANGES.addAll(0, batch);
         }
+        WRITE_BEHIND.markDirty();
     }
 
-    private static void writePayload(ConfigPayload payload) {
+    private static int profilesTouched(List<ProfileChange> batch) {
+        Set<String> names = new HashSet<>();
+        for (ProfileChange change : batch) {
+            switch (change) {
+                case ProfileChange.Added added -> names.add(added.profile().name().toLowerCase(Locale.ROOT));
+                case ProfileChange.Changed changed -> names.add(changed.updated().name().toLowerCase(Locale.ROOT));
+                case ProfileChange.Removed removed -> names.add(removed.profile().name().toLowerCase(Locale.ROOT));
+                case ProfileChange.ActiveChanged active -> {
+                }
+            }
+        }
+        return names.size();
+    }
+
+    /**
+     * Loads one profile for the manager on the calling thread. It does not queue behind writes on the I/O
+     * thread: edits still queued or being written are newer than the store, so they are consulted first,
+     * and the store reads concurrently with the writer.
+     */
+    private static ViewModelProfile hydrate(String name) {
+        synchronized (PENDING_CHANGES) {
+            ViewModelProfile latest = latestIn(PENDING_CHANGES, name);
+            if (latest != null) {
+                return latest;
+            }
+            if (PENDING_FULL_WRITE.get() != null) {
+                return PENDING_FULL_WRITE.get().find(name);
+            }
+            latest = latestIn(IN_FLIGHT_CHANGES, name);
+            if (latest != null) {
+                return latest;
+            }
+            if (inFlightFullWrite != null) {
+                return inFlightFullWrite.find(name);
+            }
+        }
         try {
-            Files.createDirectories(Objects.requireNonNull(CONFIG_PATH.getParent()));
-            try (Writer writer = Files.newBufferedWriter(
-                CONFIG_PATH,
-                StandardCharsets.UTF_8,
-                StandardOpenOption.CREATE,
-                StandardOpenOption.TRUNCATE_EXISTING,
-                StandardOpenOption.WRITE
-            )) {
-                GSON.toJson(payload, writer);
+            return STORE.read(name);
+        } catch (IOException e) {
+            LOGGER.error("Failed to read viewmodel profile {}", name, e);
+            return null;
+        }
+    }
+
+    private static ViewModelProfile latestIn(List<ProfileChange> changes, String name) {
+        for (int i = changes.size() - 1; i >= 0; i--) {
+            ViewModelProfile latest = switch (changes.get(i)) {
+                case ProfileChange.Added added -> added.profile();
+                case ProfileChange.Changed changed -> changed.updated();
+                case ProfileChange.Removed removed -> null;
+                case ProfileChange.ActiveChanged active -> null;
+            };
+            if (latest != null && latest.name().equalsIgnoreCase(name)) {
+                return latest;
             }
+        }
+        return null;
+    }
+
+    /**
+     * Fabric's config directory, unless {@code -Dviewmodel.configDir} points elsewhere so this code can run
+     * outside a game launch (benchmarks, headless tools).
+     */
+    private static Path configDir() {
+        String override = System.getProperty("viewmodel.configDir");
+        return override != null ? Path.of(override) : FabricLoader.getInstance().getConfigDir();
+    }
+
+    private static ProfileStore createStore() {
+        if ("binary".equalsIgnoreCase(System.getProperty("viewmodel.storage"))) {
+            return new JournaledProfileStore(STORAGE_DIR.resolve("profiles.bin"), STORAGE_DIR.resolve("profiles.journal"));
+        }
+        return new ShardedProfileStore(STORAGE_DIR);
+    }
+
+    private static ProfileStore.Index loadStore() {
+        try {
+            return STORE.load();
         } catch (IOException e) {
-            LOGGER.error("Unable to write viewmodel config", e);
+            LOGGER.error("Failed to load viewmodel profiles", e);
+            return null;
+        }
+    }
+
+    private static boolean replaceStore(ProfileStore.Library library) {
+        try {
+            STORE.replaceAll(library);
+            return true;
+        } catch (IOException | JsonIOException e) {
+            LOGGER.error("Unable to write viewmodel profiles", e);
+            return false;
+        }
+    }
+
+    /**
+     * Reads the single-file config written by earlier versions, including any journal written next to it.
+     */
+    private static ProfileStore.Library readLegacy() {
+        ProfileJournal.Model model = AtomicFiles.readNewest(LEGACY_BINARY_PATH, JournaledProfileStore::readSnapshot);
+        if (model == null) {
+            model = AtomicFiles.readNewest(LEGACY_CONFIG_PATH, ViewModelConfig::readJson);
+        }
+        if (model == null || model.profiles().isEmpty()) {
+            return null;
+        }
+        model.replay(new ProfileJournal(LEGACY_JOURNAL_PATH).read().entries());
+        LOGGER.info("Migrating {} viewmodel profiles into {}", model.profiles().size(), STORAGE_DIR);
+        return new ProfileStore.Library(new ArrayList<>(model.profiles()), model.active());
+    }
+
+    private static void retireLegacyFiles() {
+        for (Path legacy : List.of(LEGACY_CONFIG_PATH, LEGACY_BINARY_PATH, LEGACY_JOURNAL_PATH)) {
+            for (Path file : List.of(legacy, AtomicFiles.backupOf(legacy))) {
+                if (Files.notExists(file)) {
+                    continue;
+                }
+                try {
+                    Files.move(
+                        file,
+                        file.resolveSibling(file.getFileName() + ".migrated"),
+                        StandardCopyOption.REPLACE_EXISTING
+                    );
+                } catch (IOException e) {
+                    LOGGER.warn("Unable to retire legacy config file {}", file.getFileName(), e);
+                }
+            }
+        }
+    }
+
+    private static List<ViewModelProfile> defaultProfiles() {
+        List<ViewModelProfile> defaults = new ArrayList<>();
+        defaults.add(ViewModelProfile.defaults("Default"));
+        return defaults;
+    }
+
+    static ProfileJournal.Model readJson(Path path) throws IOException {
+        try (Reader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            ConfigPayload payload = GSON.fromJson(reader, ConfigPayload.class);
+            if (payload == null || payload.profiles() == null) {
+                throw new JsonParseException("Config missing profiles");
+            }
+            return new ProfileJournal.Model(
+                deserializeProfiles(payload.profiles()),
+                payload.activeProfile(),
+                payload.journalSequence()
+            );
         }
     }
 
@@ -134,124 +735,161 @@ public final class ViewModelConfig {
         ViewModelProfile.baseline().apply(this);
     }
 
+    /**
+     * The latest published state. Read it once and use that instance for the whole frame.
+     */
+    public ViewModelRenderState renderState() {
+        return renderState;
+    }
+
+    /**
+     * Sets every field and publishes them together, so a profile switch is never seen half applied.
+     */
+    synchronized void apply(ViewModelProfile profile) {
+        this.size = profile.size();
+        this.positionX = profile.positionX();
+        this.positionY = profile.positionY();
+        this.positionZ = profile.positionZ();
+        this.rotationYaw = profile.rotationYaw();
+        this.rotationPitch = profile.rotationPitch();
+        this.rotationRoll = profile.rotationRoll();
+        this.noSwing = profile.noSwing();
+        this.scaleSwing = profile.scaleSwing();
+        this.offHand = profile.offHand();
+        publish();
+    }
+
+    private void publish() {
+        this.renderState = new ViewModelRenderState(
+            ++renderVersion,
+            size,
+            positionX,
+            positionY,
+            positionZ,
+            rotationYaw,
+            rotationPitch,
+            rotationRoll,
+            noSwing,
+            scaleSwing,
+            offHand,
+            renderState.swing()
+        );
+    }
+
     public float getSize() {
-        return size;
+        return renderState.size();
     }
 
-    public void setSize(float size) {
+    public synchronized void setSize(float size) {
         this.size = size;
+        publish();
     }
 
     public float getPositionX() {
-        return positionX;
+        return renderState.positionX();
     }
 
-    public void setPositionX(float positionX) {
+    public synchronized void setPositionX(float positionX) {
         this.positionX = positionX;
+        publish();
     }
 
     public float getPositionY() {
-        return positionY;
+        return renderState.positionY();
     }
 
-    public void setPositionY(float positionY) {
+    public synchronized void setPositionY(float positionY) {
         this.positionY = positionY;
+        publish();
     }
 
     public float getPositionZ() {
-        return positionZ;
+        return renderState.positionZ();
     }
 
-    public void setPositionZ(float positionZ) {
+    public synchronized void setPositionZ(float positionZ) {
         this.positionZ = positionZ;
+        publish();
     }
 
     public float getRotationYaw() {
-        return rotationYaw;
+        return renderState.rotationYaw();
     }
 
-    public void setRotationYaw(float rotationYaw) {
+    public synchronized void setRotationYaw(float rotationYaw) {
         this.rotationYaw = rotationYaw;
+        publish();
     }
 
     public float getRotationPitch() {
-        return rotationPitch;
+        return renderState.rotationPitch();
     }
 
-    public void setRotationPitch(float rotationPitch) {
+    public synchronized void setRotationPitch(float rotationPitch) {
         this.rotationPitch = rotationPitch;
+        publish();
     }
 
     public float getRotationRoll() {
-        return rotationRoll;
+        return renderState.rotationRoll();
     }
 
-    public void setRotationRoll(float rotationRoll) {
+    public synchronized void setRotationRoll(float rotationRoll) {
         this.rotationRoll = rotationRoll;
+        publish();
     }
 
     public boolean getNoSwing() {
-        return noSwing;
+        return renderState.noSwing();
     }
 
-    public void setNoSwing(boolean noSwing) {
+    public synchronized void setNoSwing(boolean noSwing) {
         this.noSwing = noSwing;
+        publish();
     }
 
     public boolean getScaleSwing() {
-        return scaleSwing;
+        return renderState.scaleSwing();
     }
 
-    public void setScaleSwing(boolean scaleSwing) {
+    public synchronized void setScaleSwing(boolean scaleSwing) {
         this.scaleSwing = scaleSwing;
+        publish();
+    }
+
+    /**
+     * The off hand's own layout, or {@code null} while it follows the main hand.
+     */
+    public HandTransform getOffHand() {
+        return renderState.offHand();
+    }
+
+    public synchronized void setOffHand(HandTransform offHand) {
+        this.offHand = offHand;
+        publish();
     }
 
     static {
         PROFILE_MANAGER.bootstrap(current);
     }
 
-    private record ConfigPayload(String activeProfile, List<ProfilePayload> profiles) {}
-
-    private record ProfilePayload(
-        String name,
-        float size,
-        float posX,
-        float posY,
-        float posZ,
-        float yaw,
-        float pitch,
-        float roll,
-        boolean noSwing,
-        boolean scaleSwing
-    ) {
-        private static ProfilePayload from(ViewModelProfile profile) {
-            return new ProfilePayload(
-                profile.name(),
-                profile.size(),
-                profile.positionX(),
-                profile.positionY(),
-                profile.positionZ(),
-                profile.rotationYaw(),
-                profile.rotationPitch(),
-                profile.rotationRoll(),
-                profile.noSwing(),
-                profile.scaleSwing()
-            );
-        }
-
-        private ViewModelProfile toProfile() {
-            return new ViewModelProfile(
-                name,
-                size,
-                posX,
-                posY,
-                posZ,
-                yaw,
-                pitch,
-                roll,
-                noSwing,
-                scaleSwing
-            );
+    /**
+     * A library read from disk and its active profile, ready to switch to.
+     */
+    private record Loaded(ProfileStore.Index index, ViewModelProfile active) {}
+
+    /**
+     * Counters showing how many save requests the write-behind queue absorbed. {@code performed} writes changed
+     * something on disk; {@code skipped} ones found every file already holding the same content.
+     */
+    public record SaveStats(long requested, long performed, long skipped) {
+        public long coalesced() {
+            return requested - performed - skipped;
         }
     }
+
+    /**
+     * Single-file layout used by earlier versions, kept for migration and JSON import/export.
+     */
+    private record ConfigPayload(String activeProfile, long journalSequence, List<ProfilePayload> profiles) {}
 }
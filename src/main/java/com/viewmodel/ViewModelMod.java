@@ -1,26 +1,39 @@
 package com.viewmodel;
 
+import com.viewmodel.client.gui.TimingsOverlay;
 import com.viewmodel.client.gui.ViewmodelConfigScreen;
 import net.fabricmc.api.ClientModInitializer;
+import net.fabricmc.fabric.api.client.event.lifecycle.v1.ClientLifecycleEvents;
 import net.fabricmc.fabric.api.client.event.lifecycle.v1.ClientTickEvents;
 import net.fabricmc.fabric.api.client.keybinding.v1.KeyBindingHelper;
+import net.fabricmc.fabric.api.client.rendering.v1.HudRenderCallback;
+import net.fabricmc.fabric.api.event.lifecycle.v1.CommonLifecycleEvents;
 import net.minecraft.client.MinecraftClient;
 import net.minecraft.client.option.KeyBinding;
 import net.minecraft.client.util.InputUtil;
+import net.minecraft.text.Text;
 import org.lwjgl.glfw.GLFW;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.concurrent.TimeUnit;
+
 /**
- * Registers the keybinding that opens the compact config screen.
+ * Registers the keybindings that open the compact config screen and drive the timings overlay.
  */
 public final class ViewModelMod implements ClientModInitializer {
     public static final Logger LOGGER = LoggerFactory.getLogger("viewmodel");
     private static KeyBinding openScreenKey;
+    private static KeyBinding toggleTimingsKey;
+    private static KeyBinding dumpTimingsKey;
 
     @Override
     public void onInitializeClient() {
-        ViewModelConfig.load();
+        long start = System.nanoTime();
+        FlightEvents.register();
+        // Rendering uses the baseline profile until the library is read; the client thread switches over.
+        ViewModelConfig.loadAsync(task -> MinecraftClient.getInstance().execute(task));
+        ViewModelConfig.watchExternalEdits(task -> MinecraftClient.getInstance().execute(task));
 
         openScreenKey = KeyBindingHelper.registerKeyBinding(new KeyBinding(
             "key.viewmodel.open_menu",
@@ -28,11 +41,54 @@ public final class ViewModelMod implements ClientModInitializer {
             GLFW.GLFW_KEY_V,
             "key.category.viewmodel"
         ));
+        // Debug tools, unbound unless the player assigns them.
+        toggleTimingsKey = KeyBindingHelper.registerKeyBinding(new KeyBinding(
+            "key.viewmodel.toggle_timings",
+            InputUtil.Type.KEYSYM,
+            GLFW.GLFW_KEY_UNKNOWN,
+            "key.category.viewmodel"
+        ));
+        dumpTimingsKey = KeyBindingHelper.registerKeyBinding(new KeyBinding(
+            "key.viewmodel.dump_timings",
+            InputUtil.Type.KEYSYM,
+            GLFW.GLFW_KEY_UNKNOWN,
+            "key.category.viewmodel"
+        ));
 
         ClientTickEvents.END_CLIENT_TICK.register(client -> {
             while (openScreenKey.wasPressed()) {
                 openConfigScreen(client);
             }
+            while (toggleTimingsKey.wasPressed()) {
+                TimingsOverlay.toggle();
+            }
+            while (dumpTimingsKey.wasPressed()) {
+                dumpTimings(client);
+            }
+            ViewModelConfig.tick(client);
+        });
+
+        // Tag bindings depend on the tags the server sends, which change on every world join and reload.
+        CommonLifecycleEvents.TAGS_LOADED.register((registries, client) -> ViewModelConfig.tagsReloaded());
+        ClientLifecycleEvents.CLIENT_STOPPING.register(client -> ViewModelConfig.shutdown());
+        HudRenderCallback.EVENT.register(TimingsOverlay::render);
+        LOGGER.info("Viewmodel client init took {} ms", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    private static void dumpTimings(MinecraftClient client) {
+        ViewModelConfig.io().call(() -> HookTimings.dump(ViewModelConfig.storageDir())).whenComplete((file, error) -> {
+            Text message;
+            if (error == null) {
+                message = Text.literal("Viewmodel timings written to " + file.getFileName());
+            } else {
+                LOGGER.error("Unable to write viewmodel timings", error);
+                message = Text.literal("Unable to write viewmodel timings");
+            }
+            client.execute(() -> {
+                if (client.player != null) {
+                    client.player.sendMessage(message, false);
+                }
+            });
         });
     }
 
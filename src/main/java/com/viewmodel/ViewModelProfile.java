@@ -2,6 +2,8 @@ package com.viewmodel;
 
 /**
  * Immutable snapshot of every tweakable viewmodel parameter.
+ * The flat transform fields describe the main hand. {@code offHand} is {@code null} while the off hand simply
+ * follows them; either way the left arm gets the mirrored layout (see {@link HandTransform#mirrored}).
  */
 public record ViewModelProfile(
     String name,
@@ -13,7 +15,8 @@ public record ViewModelProfile(
     float rotationPitch,
     float rotationRoll,
     boolean noSwing,
-    boolean scaleSwing
+    boolean scaleSwing,
+    HandTransform offHand
 ) {
     private static final ViewModelProfile BASELINE = new ViewModelProfile(
         "Default",
@@ -25,7 +28,8 @@ public record ViewModelProfile(
         0.0f,
         0.0f,
         false,
-        false
+        false,
+        null
     );
 
     public static ViewModelProfile baseline() {
@@ -37,17 +41,19 @@ public record ViewModelProfile(
     }
 
     public static ViewModelProfile fromConfig(String name, ViewModelConfig config) {
+        ViewModelRenderState state = config.renderState();
         return new ViewModelProfile(
             name,
-            config.getSize(),
-            config.getPositionX(),
-            config.getPositionY(),
-            config.getPositionZ(),
-            config.getRotationYaw(),
-            config.getRotationPitch(),
-            config.getRotationRoll(),
-            config.getNoSwing(),
-            config.getScaleSwing()
+            state.size(),
+            state.positionX(),
+            state.positionY(),
+            state.positionZ(),
+            state.rotationYaw(),
+            state.rotationPitch(),
+            state.rotationRoll(),
+            state.noSwing(),
+            state.scaleSwing(),
+            state.offHand()
         );
     }
 
@@ -62,19 +68,190 @@ public record ViewModelProfile(
             rotationPitch,
             rotationRoll,
             noSwing,
-            scaleSwing
+            scaleSwing,
+            offHand
+        );
+    }
+
+    public ViewModelProfile withSize(float newSize) {
+        return new ViewModelProfile(
+            name,
+            newSize,
+            positionX,
+            positionY,
+            positionZ,
+            rotationYaw,
+            rotationPitch,
+            rotationRoll,
+            noSwing,
+            scaleSwing,
+            offHand
+        );
+    }
+
+    public ViewModelProfile withPositionX(float newPositionX) {
+        return new ViewModelProfile(
+            name,
+            size,
+            newPositionX,
+            positionY,
+            positionZ,
+            rotationYaw,
+            rotationPitch,
+            rotationRoll,
+            noSwing,
+            scaleSwing,
+            offHand
+        );
+    }
+
+    public ViewModelProfile withPositionY(float newPositionY) {
+        return new ViewModelProfile(
+            name,
+            size,
+            positionX,
+            newPositionY,
+            positionZ,
+            rotationYaw,
+            rotationPitch,
+            rotationRoll,
+            noSwing,
+            scaleSwing,
+            offHand
+        );
+    }
+
+    public ViewModelProfile withPositionZ(float newPositionZ) {
+        return new ViewModelProfile(
+            name,
+            size,
+            positionX,
+            positionY,
+            newPositionZ,
+            rotationYaw,
+            rotationPitch,
+            rotationRoll,
+            noSwing,
+            scaleSwing,
+            offHand
+        );
+    }
+
+    public ViewModelProfile withRotationYaw(float newRotationYaw) {
+        return new ViewModelProfile(
+            name,
+            size,
+            positionX,
+            positionY,
+            positionZ,
+            newRotationYaw,
+            rotationPitch,
+            rotationRoll,
+            noSwing,
+            scaleSwing,
+            offHand
+        );
+    }
+
+    public ViewModelProfile withRotationPitch(float newRotationPitch) {
+        return new ViewModelProfile(
+            name,
+            size,
+            positionX,
+            positionY,
+            positionZ,
+            rotationYaw,
+            newRotationPitch,
+            rotationRoll,
+            noSwing,
+            scaleSwing,
+            offHand
+        );
+    }
+
+    public ViewModelProfile withRotationRoll(float newRotationRoll) {
+        return new ViewModelProfile(
+            name,
+            size,
+            positionX,
+            positionY,
+            positionZ,
+            rotationYaw,
+            rotationPitch,
+            newRotationRoll,
+            noSwing,
+            scaleSwing,
+            offHand
+        );
+    }
+
+    public ViewModelProfile withNoSwing(boolean newNoSwing) {
+        return new ViewModelProfile(
+            name,
+            size,
+            positionX,
+            positionY,
+            positionZ,
+            rotationYaw,
+            rotationPitch,
+            rotationRoll,
+            newNoSwing,
+            scaleSwing,
+            offHand
+        );
+    }
+
+    public ViewModelProfile withScaleSwing(boolean newScaleSwing) {
+        return new ViewModelProfile(
+            name,
+            size,
+            positionX,
+            positionY,
+            positionZ,
+            rotationYaw,
+            rotationPitch,
+            rotationRoll,
+            noSwing,
+            newScaleSwing,
+            offHand
+        );
+    }
+
+    /**
+     * The main hand layout.
+     */
+    public HandTransform mainHand() {
+        return new HandTransform(size, positionX, positionY, positionZ, rotationYaw, rotationPitch, rotationRoll);
+    }
+
+    /**
+     * The off hand layout: its own if {@link #offHand} is set, otherwise the main hand's.
+     */
+    public HandTransform offHandOrMain() {
+        return offHand != null ? offHand : mainHand();
+    }
+
+    /**
+     * Gives the off hand its own layout, or makes it follow the main hand again when {@code newOffHand}
+     * is {@code null}.
+     */
+    public ViewModelProfile withOffHand(HandTransform newOffHand) {
+        return new ViewModelProfile(
+            name,
+            size,
+            positionX,
+            positionY,
+            positionZ,
+            rotationYaw,
+            rotationPitch,
+            rotationRoll,
+            noSwing,
+            scaleSwing,
+            newOffHand
         );
     }
 
     public void apply(ViewModelConfig target) {
-        target.setSize(size);
-        target.setPositionX(positionX);
-        target.setPositionY(positionY);
-        target.setPositionZ(positionZ);
-        target.setRotationYaw(rotationYaw);
-        target.setRotationPitch(rotationPitch);
-        target.setRotationRoll(rotationRoll);
-        target.setNoSwing(noSwing);
-        target.setScaleSwing(scaleSwing);
+        target.apply(this);
     }
 }
@@ -1,31 +1,57 @@
 package com.viewmodel;
 
-import java.util.ArrayList;
-import java.util.Collections;
+import java.util.AbstractList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
 
 /**
- * Simple in-memory profile registry so the config screen can switch layouts quickly.
- * Persistence can hook into this later and hydrate the list from disk.
+ * Profile registry backing the config screen. Only the names of the whole library stay in memory, in a
+ * {@link ProfileNameTable}; full profiles are hydrated from storage when they are needed and kept in a small
+ * LRU, while the active profile is always resident because the render path reads it every frame.
  */
 public final class ViewModelProfileManager {
-    private final List<ViewModelProfile> profiles = new ArrayList<>();
+    private static final int CACHE_CAPACITY = 32;
+
+    private final ProfileNameTable names = new ProfileNameTable();
+    // Normalized base name -> next numeric suffix to try when that base is taken.
+    private final Map<String, Integer> suffixCounters = new HashMap<>();
+    private final ProfileCache cache = new ProfileCache(CACHE_CAPACITY);
+    private Function<String, ViewModelProfile> loader = name -> null;
+    private ViewModelProfile active;
     private int activeIndex;
 
     public ViewModelProfileManager() {
-        this.profiles.add(ViewModelProfile.defaults("Default"));
+        this.active = ViewModelProfile.defaults("Default");
+        this.names.add(active.name());
     }
 
     void bootstrap(ViewModelConfig config) {
-        this.profiles.get(activeIndex).apply(config);
+        this.active.apply(config);
     }
 
+    /**
+     * Read-only view of the library; each element is hydrated when it is accessed.
+     */
     public List<ViewModelProfile> profiles() {
-        return Collections.unmodifiableList(profiles);
+        return new AbstractList<>() {
+            @Override
+            public ViewModelProfile get(int index) {
+                return profile(index);
+            }
+
+            @Override
+            public int size() {
+                return names.size();
+            }
+        };
     }
 
     public List<String> profileNames() {
-        return profiles.stream().map(ViewModelProfile::name).toList();
+        return List.copyOf(names.asList());
     }
 
     public int getActiveIndex() {
@@ -33,95 +59,253 @@ public final class ViewModelProfileManager {
     }
 
     public ViewModelProfile getActiveProfile() {
-        return profiles.get(activeIndex);
+        return active;
+    }
+
+    /**
+     * Returns the profile at {@code index}, hydrating it from storage if it is not cached.
+     */
+    public ViewModelProfile profile(int index) {
+        return resolve(index, true);
+    }
+
+    /**
+     * Looks a profile up by name, ignoring case, or returns {@code null} if there is none.
+     */
+    public ViewModelProfile find(String name) {
+        int position = name == null ? -1 : names.indexOf(name);
+        return position < 0 ? null : profile(position);
     }
 
+    /**
+     * Hydrates every profile for a full export without flushing the cache for it. The copy is held in
+     * {@link ProfileColumns}, so even a very large library costs a few arrays; records are made as the
+     * returned list is read.
+     */
     public List<ViewModelProfile> snapshot() {
-        return new ArrayList<>(profiles);
+        ProfileColumns snapshot = new ProfileColumns(names.size());
+        for (int i = 0; i < names.size(); i++) {
+            snapshot.add(resolve(i, false));
+        }
+        return snapshot.asList();
     }
 
     public void select(int index) {
-        if (index < 0 || index >= profiles.size()) {
+        if (index < 0 || index >= names.size() || index == activeIndex) {
             return;
         }
+        long start = HookTimings.start();
+        FlightEvents.ProfileOperation event = FlightEvents.beginProfileOperation("select");
+        cache.put(key(active.name()), active);
+        this.active = take(index);
         this.activeIndex = index;
-        profiles.get(index).apply(ViewModelConfig.current);
-        ViewModelConfig.save();
+        active.apply(ViewModelConfig.current);
+        ViewModelConfig.activeChanged(active);
+        HookTimings.record(HookTimings.Probe.SWITCH, start);
+        event.profile = active.name();
+        event.commit();
     }
 
     public ViewModelProfile create(String requestedName) {
+        FlightEvents.ProfileOperation event = FlightEvents.beginProfileOperation("create");
         String baseName = sanitizeName(requestedName);
         String uniqueName = makeUniqueName(baseName, -1);
         ViewModelProfile snapshot = ViewModelProfile.fromConfig(uniqueName, ViewModelConfig.current);
-        profiles.add(snapshot);
-        activeIndex = profiles.size() - 1;
-        ViewModelConfig.save();
+        cache.put(key(active.name()), active);
+        activeIndex = names.add(uniqueName);
+        active = snapshot;
+        ViewModelConfig.profileAdded(snapshot);
+        ViewModelConfig.activeChanged(snapshot);
+        event.profile = uniqueName;
+        event.commit();
         return snapshot;
     }
 
     public boolean renameActive(String newName) {
-        if (profiles.isEmpty()) {
+        if (names.isEmpty()) {
             return false;
         }
         String sanitized = sanitizeName(newName);
         if (nameExists(sanitized, activeIndex)) {
             return false;
         }
-        ViewModelProfile renamed = profiles.get(activeIndex).withName(sanitized);
-        profiles.set(activeIndex, renamed);
-        ViewModelConfig.save();
+        FlightEvents.ProfileOperation event = FlightEvents.beginProfileOperation("rename");
+        ViewModelProfile previous = active;
+        ViewModelProfile renamed = previous.withName(sanitized);
+        names.set(activeIndex, sanitized);
+        active = renamed;
+        ViewModelConfig.profileChanged(previous, renamed);
+        event.profile = sanitized;
+        event.previousName = previous.name();
+        event.commit();
         return true;
     }
 
     public boolean deleteActive() {
-        if (profiles.size() <= 1) {
+        if (names.size() <= 1) {
             return false;
         }
 
-        profiles.remove(activeIndex);
+        FlightEvents.ProfileOperation event = FlightEvents.beginProfileOperation("delete");
+        ViewModelProfile removed = active;
+        names.remove(activeIndex);
         activeIndex = Math.max(0, activeIndex - 1);
-        profiles.get(activeIndex).apply(ViewModelConfig.current);
-        ViewModelConfig.save();
+        active = take(activeIndex);
+        active.apply(ViewModelConfig.current);
+        ViewModelConfig.profileRemoved(removed);
+        ViewModelConfig.activeChanged(active);
+        event.profile = removed.name();
+        event.commit();
         return true;
     }
 
     public void updateActiveFromConfig() {
-        if (profiles.isEmpty()) {
+        if (names.isEmpty()) {
             return;
         }
-        ViewModelProfile active = profiles.get(activeIndex);
-        profiles.set(activeIndex, ViewModelProfile.fromConfig(active.name(), ViewModelConfig.current));
-        ViewModelConfig.save();
+        ViewModelProfile previous = active;
+        ViewModelProfile updated = ViewModelProfile.fromConfig(previous.name(), ViewModelConfig.current);
+        active = updated;
+        ViewModelConfig.profileChanged(previous, updated);
     }
 
-    void loadProfiles(List<ViewModelProfile> loadedProfiles, String activeName) {
-        this.profiles.clear();
-        List<ViewModelProfile> source = (loadedProfiles == null || loadedProfiles.isEmpty())
-            ? defaultProfiles()
-            : new ArrayList<>(loadedProfiles);
-        this.profiles.addAll(source);
-        if (this.profiles.isEmpty()) {
-            this.profiles.add(ViewModelProfile.defaults("Default"));
+    /**
+     * Takes in a change another writer made on disk, a player editing a file or another game instance: the
+     * store has already recorded it, so nothing is queued unless the content of a hydrated profile changed.
+     * That one is queued like an edit, so an edit that raced the reload cannot leave disk and memory apart.
+     * Losing the active profile switches to its neighbour, as deleting it here would.
+     */
+    void reloaded(ProfileStore.Reloaded change) {
+        FlightEvents.ProfileOperation event = FlightEvents.beginProfileOperation("reload");
+        event.profile = change.name();
+        event.previousName = change.previousName();
+        if (change.previousName() == null) {
+            reloadedAdded(change.name(), change.profile());
+        } else if (change.name() == null) {
+            reloadedRemoved(change.previousName());
+        } else {
+            reloadedChanged(change.previousName(), change.name(), change.profile());
         }
-        this.activeIndex = resolveActiveIndex(activeName);
-        this.profiles.get(this.activeIndex).apply(ViewModelConfig.current);
+        event.commit();
     }
 
-    private int resolveActiveIndex(String activeName) {
-        if (activeName != null && !activeName.isBlank()) {
-            for (int i = 0; i < profiles.size(); i++) {
-                if (profiles.get(i).name().equalsIgnoreCase(activeName)) {
-                    return i;
+    /**
+     * Replaces the library with the given names. Only the active profile is hydrated here; the rest are
+     * fetched through {@code profileLoader} the first time something asks for them.
+     */
+    void loadProfiles(List<String> profileNames, String activeName, Function<String, ViewModelProfile> profileLoader) {
+        this.names.clear();
+        this.cache.clear();
+        this.loader = profileLoader;
+        if (profileNames != null) {
+            // Keeps the first occurrence if a hand-edited library ever contains duplicates.
+            for (String name : profileNames) {
+                if (this.names.indexOf(name) < 0) {
+                    this.names.add(name);
                 }
             }
         }
-        return 0;
+        if (this.names.isEmpty()) {
+            this.names.add("Default");
+        }
+        this.suffixCounters.clear();
+        this.activeIndex = resolveActiveIndex(activeName);
+        this.active = hydrate(names.get(activeIndex));
+        this.active.apply(ViewModelConfig.current);
+    }
+
+    private void reloadedAdded(String name, ViewModelProfile profile) {
+        if (names.indexOf(name) >= 0) {
+            return;
+        }
+        names.add(name);
+        if (profile != null) {
+            cache.put(key(name), profile);
+        }
+    }
+
+    private void reloadedRemoved(String name) {
+        int index = names.indexOf(name);
+        if (index < 0 || names.size() <= 1) {
+            return;
+        }
+        names.remove(index);
+        cache.remove(key(name));
+        if (index < activeIndex) {
+            activeIndex--;
+        } else if (index == activeIndex) {
+            activeIndex = Math.max(0, activeIndex - 1);
+            active = take(activeIndex);
+            active.apply(ViewModelConfig.current);
+            ViewModelConfig.activeChanged(active);
+        }
+    }
+
+    private void reloadedChanged(String previousName, String name, ViewModelProfile profile) {
+        int index = names.indexOf(previousName);
+        if (index < 0) {
+            return;
+        }
+        if (!previousName.equals(name)) {
+            if (nameExists(name, index)) {
+                return;
+            }
+            names.set(index, name);
+        }
+        ViewModelProfile current = index == activeIndex ? active : cache.remove(key(previousName));
+        if (current == null) {
+            return;
+        }
+        ViewModelProfile updated = profile != null ? profile.withName(name) : current.withName(name);
+        if (index == activeIndex) {
+            this.active = updated;
+            active.apply(ViewModelConfig.current);
+        } else {
+            cache.put(key(name), updated);
+        }
+        if (profile != null && current.name().equals(name)) {
+            ViewModelConfig.profileChanged(current, updated);
+        }
+    }
+
+    private ViewModelProfile resolve(int index, boolean remember) {
+        if (index == activeIndex) {
+            return active;
+        }
+        String name = names.get(index);
+        ViewModelProfile profile = cache.get(key(name));
+        if (profile == null) {
+            profile = hydrate(name);
+            if (remember) {
+                cache.put(key(name), profile);
+            }
+        }
+        return profile;
+    }
+
+    /**
+     * Resolves the profile that is about to become active; the active profile is never kept in the cache,
+     * so renaming it cannot leave a stale entry behind.
+     */
+    private ViewModelProfile take(int index) {
+        String name = names.get(index);
+        ViewModelProfile profile = cache.remove(key(name));
+        return profile != null ? profile : hydrate(name);
+    }
+
+    private ViewModelProfile hydrate(String name) {
+        ViewModelProfile loaded = loader.apply(name);
+        if (loaded == null) {
+            return ViewModelProfile.defaults(name);
+        }
+        return loaded.name().equals(name) ? loaded : loaded.withName(name);
     }
 
-    private static List<ViewModelProfile> defaultProfiles() {
-        List<ViewModelProfile> defaults = new ArrayList<>();
-        defaults.add(ViewModelProfile.defaults("Default"));
-        return defaults;
+    private int resolveActiveIndex(String activeName) {
+        if (activeName == null || activeName.isBlank()) {
+            return 0;
+        }
+        return Math.max(names.indexOf(activeName), 0);
     }
 
     private static String sanitizeName(String value) {
@@ -133,27 +317,47 @@ public final class ViewModelProfileManager {
     }
 
     private boolean nameExists(String name, int ignoreIndex) {
-        for (int i = 0; i < profiles.size(); i++) {
-            if (i == ignoreIndex) {
-                continue;
-            }
-            if (profiles.get(i).name().equalsIgnoreCase(name)) {
-                return true;
-            }
-        }
-        return false;
+        int position = names.indexOf(name);
+        return position >= 0 && position != ignoreIndex;
     }
 
+    /**
+     * Appends a numeric " N" suffix to a taken name. The counter per base name only moves forward, so
+     * creating many copies of the same name costs constant time each instead of rescanning from 2.
+     */
     private String makeUniqueName(String base, int ignoreIndex) {
         if (!nameExists(base, ignoreIndex)) {
             return base;
         }
 
-        int counter = 2;
-        String candidate = base;
+        String baseKey = key(base);
+        int counter = suffixCounters.getOrDefault(baseKey, 2);
+        String candidate = base + " " + counter;
         while (nameExists(candidate, ignoreIndex)) {
-            candidate = base + " " + counter++;
+            candidate = base + " " + ++counter;
         }
+        suffixCounters.put(baseKey, counter + 1);
         return candidate;
     }
+
+    private static String key(String name) {
+        return name.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Access-ordered map that drops the least recently used profile once it is full.
+     */
+    private static final class ProfileCache extends LinkedHashMap<String, ViewModelProfile> {
+        private final int capacity;
+
+        ProfileCache(int capacity) {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, ViewModelProfile> eldest) {
+            return size() > capacity;
+        }
+    }
 }
@@ -0,0 +1,165 @@
+package com.viewmodel;
+
+import net.minecraft.util.Arm;
+import net.minecraft.util.Hand;
+
+/**
+ * Everything the held item renderer needs for one frame, published as a whole by {@link ViewModelConfig}.
+ * Instances are immutable, so a reader that grabs one reference never mixes values from two edits.
+ * The version increases with every publish, which lets caches derived from a state tell it is stale.
+ * <p>
+ * Layouts and matrices for every hand and arm combination are built here, once, so drawing both hands costs
+ * no trigonometry per frame.
+ */
+public final class ViewModelRenderState {
+    private final long version;
+    private final float size;
+    private final float positionX;
+    private final float positionY;
+    private final float positionZ;
+    private final float rotationYaw;
+    private final float rotationPitch;
+    private final float rotationRoll;
+    private final boolean noSwing;
+    private final boolean scaleSwing;
+    private final HandTransform offHand;
+    private final HandTransform[] layouts = new HandTransform[4];
+    private final ViewModelTransform[] transforms = new ViewModelTransform[4];
+    private final SwingCurves swing;
+
+    ViewModelRenderState(
+        long version,
+        float size,
+        float positionX,
+        float positionY,
+        float positionZ,
+        float rotationYaw,
+        float rotationPitch,
+        float rotationRoll,
+        boolean noSwing,
+        boolean scaleSwing,
+        HandTransform offHand,
+        SwingCurves previousSwing
+    ) {
+        this.version = version;
+        this.size = size;
+        this.positionX = positionX;
+        this.positionY = positionY;
+        this.positionZ = positionZ;
+        this.rotationYaw = rotationYaw;
+        this.rotationPitch = rotationPitch;
+        this.rotationRoll = rotationRoll;
+        this.noSwing = noSwing;
+        this.scaleSwing = scaleSwing;
+        this.offHand = offHand;
+
+        HandTransform mainHand = new HandTransform(size, positionX, positionY, positionZ, rotationYaw, rotationPitch, rotationRoll);
+        fill(0, mainHand);
+        if (offHand == null) {
+            layouts[2] = layouts[0];
+            layouts[3] = layouts[1];
+            transforms[2] = transforms[0];
+            transforms[3] = transforms[1];
+        } else {
+            fill(2, offHand);
+        }
+        this.swing = SwingCurves.forMode(previousSwing, noSwing, scaleSwing, size);
+    }
+
+    static ViewModelRenderState of(long version, ViewModelProfile profile) {
+        return new ViewModelRenderState(
+            version,
+            profile.size(),
+            profile.positionX(),
+            profile.positionY(),
+            profile.positionZ(),
+            profile.rotationYaw(),
+            profile.rotationPitch(),
+            profile.rotationRoll(),
+            profile.noSwing(),
+            profile.scaleSwing(),
+            profile.offHand(),
+            null
+        );
+    }
+
+    private void fill(int base, HandTransform right) {
+        HandTransform left = right.mirrored();
+        layouts[base] = right;
+        layouts[base + 1] = left;
+        transforms[base] = new ViewModelTransform(right);
+        transforms[base + 1] = new ViewModelTransform(left);
+    }
+
+    private static int slot(Hand hand, Arm arm) {
+        return (hand == Hand.OFF_HAND ? 2 : 0) | (arm == Arm.LEFT ? 1 : 0);
+    }
+
+    public long version() {
+        return version;
+    }
+
+    public float size() {
+        return size;
+    }
+
+    public float positionX() {
+        return positionX;
+    }
+
+    public float positionY() {
+        return positionY;
+    }
+
+    public float positionZ() {
+        return positionZ;
+    }
+
+    public float rotationYaw() {
+        return rotationYaw;
+    }
+
+    public float rotationPitch() {
+        return rotationPitch;
+    }
+
+    public float rotationRoll() {
+        return rotationRoll;
+    }
+
+    public boolean noSwing() {
+        return noSwing;
+    }
+
+    public boolean scaleSwing() {
+        return scaleSwing;
+    }
+
+    /**
+     * The off hand's own layout, or {@code null} when it follows the main hand.
+     */
+    public HandTransform offHand() {
+        return offHand;
+    }
+
+    /**
+     * The layout for {@code hand} drawn in {@code arm}, already mirrored for the left arm.
+     */
+    public HandTransform layout(Hand hand, Arm arm) {
+        return layouts[slot(hand, arm)];
+    }
+
+    /**
+     * Rotation, scale and offset precomputed for {@code hand} drawn in {@code arm}.
+     */
+    public ViewModelTransform transform(Hand hand, Arm arm) {
+        return transforms[slot(hand, arm)];
+    }
+
+    /**
+     * Swing curves for the active swing mode, or {@code null} when the vanilla swing should run.
+     */
+    public SwingCurves swing() {
+        return swing;
+    }
+}
@@ -0,0 +1,524 @@
+package com.viewmodel;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonParseException;
+import net.minecraft.client.MinecraftClient;
+import net.minecraft.client.network.ClientPlayerEntity;
+import net.minecraft.item.Item;
+import net.minecraft.item.ItemStack;
+import net.minecraft.registry.Registries;
+import net.minecraft.registry.tag.TagKey;
+import net.minecraft.util.Arm;
+import net.minecraft.util.Identifier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Ordered rules, stored in {@code rules.json}, that switch or tweak the rendered profile depending on the
+ * held item, the arm, and what the player is doing. The first matching rule wins.
+ * <p>
+ * Rules are never evaluated per frame. Once per client tick the player state is folded into a small bitmask
+ * (sneaking, sprinting, riding, underwater, plus one bit per dimension the rules mention), and each frame
+ * reads the winning rule from a table indexed by that mask and the arm. Item conditions give every distinct
+ * combination of matched items its own table row, built on first use and cached per {@link Item}.
+ */
+public final class ViewModelRules {
+    private static final Logger LOGGER = LoggerFactory.getLogger("ViewmodelConfig");
+    private static final Gson GSON = new GsonBuilder().setPrettyPrinting().create();
+    private static final int SNEAKING = 1;
+    private static final int SPRINTING = 1 << 1;
+    private static final int RIDING = 1 << 2;
+    private static final int UNDERWATER = 1 << 3;
+    private static final int FIXED_BITS = 4;
+    private static final int MAX_DIMENSIONS = 6;
+    private static final int MAX_ITEM_TARGETS = 64;
+    private static final int NO_RULE = -1;
+    // Render states a modifying rule keeps results for. Sources are replaced on every edit, so stale ones are
+    // dropped wholesale once a rule collects this many.
+    private static final int MODIFIED_PER_RULE = 16;
+    private static final List<String> FIELDS = List.of("size", "posX", "posY", "posZ", "yaw", "pitch", "roll");
+
+    private final Path path;
+    private final Runnable onChange;
+    private final AtomicInteger epoch = new AtomicInteger();
+    private final AtomicBoolean dirty = new AtomicBoolean();
+    private volatile List<Rule> rules = List.of();
+
+    // Client thread only: ticks and frames both run there.
+    private final Map<Item, int[]> rowsByItem = new IdentityHashMap<>();
+    private final Map<Long, int[]> rowsByMatch = new HashMap<>();
+    private Compiled compiled = Compiled.EMPTY;
+    private int compiledEpoch = -1;
+    private int stateMask;
+    private int lastApplied = NO_RULE;
+    // Per rule, what it made of each source state; both hands can use one rule with different sources.
+    private List<Map<ViewModelRenderState, ViewModelRenderState>> modified = List.of();
+
+    ViewModelRules(Path path, Runnable onChange) {
+        this.path = path;
+        this.onChange = onChange;
+    }
+
+    public List<Rule> rules() {
+        return rules;
+    }
+
+    public synchronized void setRules(List<Rule> updated) {
+        replace(updated);
+    }
+
+    synchronized void profileRenamed(String previous, String updated) {
+        List<Rule> renamed = new ArrayList<>(rules.size());
+        boolean changed = false;
+        for (Rule rule : rules) {
+            if (rule.profile() != null && rule.profile().equalsIgnoreCase(previous)) {
+                renamed.add(new Rule(rule.when(), updated, rule.set(), rule.noSwing(), rule.scaleSwing()));
+                changed = true;
+            } else {
+                renamed.add(rule);
+            }
+        }
+        if (changed) {
+            replace(renamed);
+        }
+    }
+
+    /**
+     * Points rules that switched to a deleted profile back at the item's own state. A rule left with nothing
+     * to do, because it only switched profiles, is dropped.
+     */
+    synchronized void profileRemoved(String name) {
+        List<Rule> remaining = new ArrayList<>(rules.size());
+        boolean changed = false;
+        for (Rule rule : rules) {
+            if (rule.profile() == null || !rule.profile().equalsIgnoreCase(name)) {
+                remaining.add(rule);
+                continue;
+            }
+            changed = true;
+            boolean modifies = (rule.set() != null && !rule.set().isEmpty())
+                || rule.noSwing() != null
+                || rule.scaleSwing() != null;
+            if (modifies) {
+                remaining.add(new Rule(rule.when(), null, rule.set(), rule.noSwing(), rule.scaleSwing()));
+            }
+        }
+        if (changed) {
+            replace(remaining);
+        }
+    }
+
+    /**
+     * The profiles the rules switch to, for {@link ItemBindings#prefetch}.
+     */
+    List<String> profileNames() {
+        List<String> names = new ArrayList<>();
+        for (Rule rule : rules) {
+            if (rule.profile() != null) {
+                names.add(rule.profile());
+            }
+        }
+        return names;
+    }
+
+    /**
+     * Forces a recompile on the next tick, e.g. after the world's item tags changed.
+     */
+    public void invalidate() {
+        epoch.incrementAndGet();
+    }
+
+    /**
+     * Recompiles if anything changed and recomputes the player state mask. Called once per client tick.
+     */
+    void tick(MinecraftClient client) {
+        compileIfChanged();
+
+        int mask = 0;
+        ClientPlayerEntity player = client.player;
+        if (player != null && !compiled.rules().isEmpty()) {
+            mask |= player.isSneaking() ? SNEAKING : 0;
+            mask |= player.isSprinting() ? SPRINTING : 0;
+            mask |= player.hasVehicle() ? RIDING : 0;
+            mask |= player.isSubmergedInWater() ? UNDERWATER : 0;
+            if (client.world != null) {
+                int dimension = compiled.dimensions().indexOf(client.world.getRegistryKey().getValue());
+                if (dimension >= 0) {
+                    mask |= 1 << (FIXED_BITS + dimension);
+                }
+            }
+        }
+        this.stateMask = mask;
+    }
+
+    /**
+     * Recompiles the rules if they or the world's item tags changed since the last call.
+     */
+    void compileIfChanged() {
+        int current = epoch.get();
+        if (current != compiledEpoch) {
+            compiled = compile(rules);
+            rowsByItem.clear();
+            rowsByMatch.clear();
+            List<Map<ViewModelRenderState, ViewModelRenderState>> perRule = new ArrayList<>(compiled.rules().size());
+            for (int i = 0; i < compiled.rules().size(); i++) {
+                perRule.add(new IdentityHashMap<>());
+            }
+            modified = perRule;
+            compiledEpoch = current;
+        }
+    }
+
+    /**
+     * Applies the winning rule for this hand on top of {@code base} (the item's bound or active state).
+     * A rule that names a profile starts from that profile instead, once it has been prefetched; until then
+     * it starts from {@code global}.
+     */
+    ViewModelRenderState apply(
+        ItemStack stack,
+        Arm arm,
+        ViewModelRenderState base,
+        ViewModelRenderState global,
+        ItemBindings bindings
+    ) {
+        Compiled current = compiled;
+        lastApplied = NO_RULE;
+        if (current.rules().isEmpty()) {
+            return base;
+        }
+
+        Item item = stack.getItem();
+        int[] row = rowsByItem.get(item);
+        if (row == null) {
+            row = rowsByMatch.computeIfAbsent(matchItem(current, stack), match -> buildRow(current, match));
+            rowsByItem.put(item, row);
+        }
+        int index = row[(stateMask << 1) | (arm == Arm.LEFT ? 1 : 0)];
+        if (index == NO_RULE) {
+            return base;
+        }
+
+        lastApplied = index;
+        CompiledRule rule = current.rules().get(index);
+        ViewModelRenderState source = rule.profile() == null ? base : bindings.stateOf(rule.profile(), global);
+        if (!rule.modifies()) {
+            return source;
+        }
+        Map<ViewModelRenderState, ViewModelRenderState> results = modified.get(index);
+        ViewModelRenderState result = results.get(source);
+        if (result == null) {
+            if (results.size() >= MODIFIED_PER_RULE) {
+                results.clear();
+            }
+            result = rule.modify(source);
+            results.put(source, result);
+        }
+        return result;
+    }
+
+    /**
+     * Index of the rule picked by the last {@link #apply} call, or {@code -1} if none matched.
+     */
+    int lastApplied() {
+        return lastApplied;
+    }
+
+    void load() {
+        List<Rule> loaded = AtomicFiles.readNewest(path, ViewModelRules::read);
+        synchronized (this) {
+            rules = loaded == null ? List.of() : List.copyOf(loaded);
+            dirty.set(false);
+            invalidate();
+        }
+    }
+
+    /**
+     * Writes the rules if they changed since the last write. Runs on the write-behind thread. Returns
+     * {@code false} if the write failed; the rules then stay dirty for the caller to retry.
+     */
+    boolean writeIfDirty() {
+        if (!dirty.getAndSet(false)) {
+            return true;
+        }
+        RulesPayload payload = new RulesPayload(rules);
+        try {
+            AtomicFiles.write(path, out -> {
+                Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+                GSON.toJson(payload, writer);
+                writer.flush();
+            });
+        } catch (IOException e) {
+            LOGGER.error("Unable to write viewmodel rules, will retry", e);
+            dirty.set(true);
+            return false;
+        }
+        return true;
+    }
+
+    private void replace(List<Rule> updated) {
+        rules = List.copyOf(updated);
+        dirty.set(true);
+        invalidate();
+        onChange.run();
+    }
+
+    private static long matchItem(Compiled compiled, ItemStack stack) {
+        long match = 0L;
+        Identifier id = null;
+        for (int i = 0; i < compiled.itemTargets().size(); i++) {
+            Object target = compiled.itemTargets().get(i);
+            boolean matches;
+            if (target instanceof TagKey<?>) {
+                @SuppressWarnings("unchecked")
+                TagKey<Item> tag = (TagKey<Item>) target;
+                matches = stack.isIn(tag);
+            } else {
+                if (id == null) {
+                    id = Registries.ITEM.getId(stack.getItem());
+                }
+                matches = target.equals(id);
+            }
+            if (matches) {
+                match |= 1L << i;
+            }
+        }
+        return match;
+    }
+
+    private static int[] buildRow(Compiled compiled, long itemMatch) {
+        int[] row = new int[1 << (compiled.stateBits() + 1)];
+        Arrays.fill(row, NO_RULE);
+        for (int index = 0; index < row.length; index++) {
+            int state = index >>> 1;
+            int left = index & 1;
+            for (int r = 0; r < compiled.rules().size(); r++) {
+                if (compiled.rules().get(r).matches(itemMatch, state, left)) {
+                    row[index] = r;
+                    break;
+                }
+            }
+        }
+        return row;
+    }
+
+    private static Compiled compile(List<Rule> rules) {
+        if (rules.isEmpty()) {
+            return Compiled.EMPTY;
+        }
+        List<Object> itemTargets = new ArrayList<>();
+        List<Identifier> dimensions = new ArrayList<>();
+        List<CompiledRule> compiledRules = new ArrayList<>();
+        for (Rule rule : rules) {
+            CompiledRule compiledRule = compileRule(rule, itemTargets, dimensions);
+            if (compiledRule != null) {
+                compiledRules.add(compiledRule);
+            }
+        }
+        return new Compiled(compiledRules, itemTargets, dimensions, FIXED_BITS + dimensions.size());
+    }
+
+    private static CompiledRule compileRule(Rule rule, List<Object> itemTargets, List<Identifier> dimensions) {
+        Conditions when = rule.when() == null ? Conditions.ANY : rule.when();
+
+        int itemBit = -1;
+        if (when.item() != null) {
+            Object target = ItemBindings.parseTarget(when.item().trim());
+            if (target == null) {
+                LOGGER.warn("Ignoring viewmodel rule with invalid item {}", when.item());
+                return null;
+            }
+            itemBit = itemTargets.indexOf(target);
+            if (itemBit < 0) {
+                if (itemTargets.size() == MAX_ITEM_TARGETS) {
+                    LOGGER.warn("Ignoring viewmodel rule for {}: at most {} items or tags", when.item(), MAX_ITEM_TARGETS);
+                    return null;
+                }
+                itemBit = itemTargets.size();
+                itemTargets.add(target);
+            }
+        }
+
+        int arm = -1;
+        if (when.arm() != null) {
+            switch (when.arm().trim().toLowerCase(Locale.ROOT)) {
+                case "right" -> arm = 0;
+                case "left" -> arm = 1;
+                default -> {
+                    LOGGER.warn("Ignoring viewmodel rule with invalid arm {}", when.arm());
+                    return null;
+                }
+            }
+        }
+
+        int required = 0;
+        int expected = 0;
+        int[] flags = {SNEAKING, SPRINTING, RIDING, UNDERWATER};
+        Boolean[] values = {when.sneaking(), when.sprinting(), when.riding(), when.underwater()};
+        for (int i = 0; i < flags.length; i++) {
+            if (values[i] != null) {
+                required |= flags[i];
+                expected |= values[i] ? flags[i] : 0;
+            }
+        }
+        if (when.dimension() != null) {
+            Identifier dimension = Identifier.tryParse(when.dimension().trim());
+            if (dimension == null) {
+                LOGGER.warn("Ignoring viewmodel rule with invalid dimension {}", when.dimension());
+                return null;
+            }
+            int bit = dimensions.indexOf(dimension);
+            if (bit < 0) {
+                if (dimensions.size() == MAX_DIMENSIONS) {
+                    LOGGER.warn("Ignoring viewmodel rule for {}: at most {} dimensions", dimension, MAX_DIMENSIONS);
+                    return null;
+                }
+                bit = dimensions.size();
+                dimensions.add(dimension);
+            }
+            required |= 1 << (FIXED_BITS + bit);
+            expected |= 1 << (FIXED_BITS + bit);
+        }
+
+        float[] overrides = new float[FIELDS.size()];
+        Arrays.fill(overrides, Float.NaN);
+        if (rule.set() != null) {
+            for (Map.Entry<String, Float> entry : rule.set().entrySet()) {
+                int field = FIELDS.indexOf(entry.getKey());
+                if (field < 0 || entry.getValue() == null) {
+                    LOGGER.warn("Ignoring unknown viewmodel rule field {}", entry.getKey());
+                    continue;
+                }
+                overrides[field] = entry.getValue();
+            }
+        }
+        boolean modifies = rule.noSwing() != null || rule.scaleSwing() != null;
+        for (float override : overrides) {
+            modifies |= !Float.isNaN(override);
+        }
+        return new CompiledRule(
+            itemBit,
+            arm,
+            required,
+            expected,
+            rule.profile(),
+            overrides,
+            rule.noSwing(),
+            rule.scaleSwing(),
+            modifies
+        );
+    }
+
+    private static List<Rule> read(Path file) throws IOException {
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            RulesPayload payload = GSON.fromJson(reader, RulesPayload.class);
+            if (payload == null || payload.rules() == null) {
+                throw new JsonParseException("Rules file has no entries");
+            }
+            List<Rule> result = new ArrayList<>();
+            for (Rule rule : payload.rules()) {
+                if (rule != null) {
+                    result.add(rule);
+                }
+            }
+            return result;
+        }
+    }
+
+    /**
+     * One rule as it appears in {@code rules.json}: conditions, an optional profile to switch to, optional
+     * field overrides under {@code set} ({@code size}, {@code posX}, {@code posY}, {@code posZ}, {@code yaw},
+     * {@code pitch}, {@code roll}) and optional swing flags. A missing profile falls back to the active one.
+     */
+    public record Rule(Conditions when, String profile, Map<String, Float> set, Boolean noSwing, Boolean scaleSwing) {}
+
+    /**
+     * Every condition is optional; {@code arm} is {@code left} or {@code right}, {@code item} an item or
+     * {@code #tag} id and {@code dimension} a dimension id such as {@code minecraft:the_nether}.
+     */
+    public record Conditions(
+        String item,
+        String arm,
+        Boolean sneaking,
+        Boolean sprinting,
+        Boolean riding,
+        Boolean underwater,
+        String dimension
+    ) {
+        static final Conditions ANY = new Conditions(null, null, null, null, null, null, null);
+    }
+
+    private record RulesPayload(List<Rule> rules) {}
+
+    private record Compiled(List<CompiledRule> rules, List<Object> itemTargets, List<Identifier> dimensions, int stateBits) {
+        static final Compiled EMPTY = new Compiled(List.of(), List.of(), List.of(), FIXED_BITS);
+    }
+
+    private record CompiledRule(
+        int itemBit,
+        int arm,
+        int requiredMask,
+        int expectedMask,
+        String profile,
+        float[] overrides,
+        Boolean noSwing,
+        Boolean scaleSwing,
+        boolean modifies
+    ) {
+        boolean matches(long itemMatch, int state, int left) {
+            return (itemBit < 0 || (itemMatch >>> itemBit & 1L) != 0)
+                && (arm < 0 || arm == left)
+                && (state & requiredMask) == expectedMask;
+        }
+
+        ViewModelRenderState modify(ViewModelRenderState source) {
+            return new ViewModelRenderState(
+                source.version(),
+                pick(0, source.size()),
+                pick(1, source.positionX()),
+                pick(2, source.positionY()),
+                pick(3, source.positionZ()),
+                pick(4, source.rotationYaw()),
+                pick(5, source.rotationPitch()),
+                pick(6, source.rotationRoll()),
+                noSwing != null ? noSwing : source.noSwing(),
+                scaleSwing != null ? scaleSwing : source.scaleSwing(),
+                source.offHand() == null ? null : modify(source.offHand()),
+                source.swing()
+            );
+        }
+
+        private HandTransform modify(HandTransform hand) {
+            return new HandTransform(
+                pick(0, hand.size()),
+                pick(1, hand.positionX()),
+                pick(2, hand.positionY()),
+                pick(3, hand.positionZ()),
+                pick(4, hand.rotationYaw()),
+                pick(5, hand.rotationPitch()),
+                pick(6, hand.rotationRoll())
+            );
+        }
+
+        private float pick(int field, float current) {
+            return Float.isNaN(overrides[field]) ? current : overrides[field];
+        }
+    }
+}
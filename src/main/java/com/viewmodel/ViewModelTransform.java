@@ -0,0 +1,85 @@
+package com.viewmodel;
+
+import net.minecraft.client.util.math.MatrixStack;
+import net.minecraft.util.math.MathHelper;
+import org.joml.Matrix3f;
+import org.joml.Matrix4f;
+import org.joml.Quaternionf;
+
+/**
+ * The held item rotation, scale and offset folded into one matrix. It is built once per config change
+ * with the same calls the renderer used to make every frame (rotate X, Y, Z, uniform scale, then an offset
+ * divided by the scale), so applying it is a single multiply on the current stack entry.
+ */
+public final class ViewModelTransform {
+    private final Matrix4f position = new Matrix4f();
+    private final Matrix3f normal = new Matrix3f();
+    private final Quaternionf rotation = new Quaternionf();
+    private boolean identity = true;
+    private boolean touchesNormal;
+
+    /**
+     * An identity transform meant to be refilled in place with {@link #set}, e.g. by {@link ViewModelBlend}.
+     */
+    ViewModelTransform() {}
+
+    ViewModelTransform(HandTransform hand) {
+        set(
+            hand.rotationPitch(),
+            hand.rotationYaw(),
+            hand.rotationRoll(),
+            hand.size(),
+            hand.positionX(),
+            hand.positionY(),
+            hand.positionZ()
+        );
+    }
+
+    /**
+     * Rebuilds the matrices in place without allocating. Transforms owned by a published
+     * {@link ViewModelRenderState} are never rebuilt after construction.
+     */
+    void set(float rotX, float rotY, float rotZ, float scale, float x, float y, float z) {
+        boolean rotates = rotX != 0 || rotY != 0 || rotZ != 0;
+        boolean scales = scale != 1.0f;
+        boolean moves = x != 0 || y != 0 || z != 0;
+
+        position.identity();
+        normal.identity();
+        if (rotates) {
+            rotate(rotation.rotationX(rotX * MathHelper.RADIANS_PER_DEGREE));
+            rotate(rotation.rotationY(rotY * MathHelper.RADIANS_PER_DEGREE));
+            rotate(rotation.rotationZ(rotZ * MathHelper.RADIANS_PER_DEGREE));
+        }
+        if (scales) {
+            position.scale(scale, scale, scale);
+        }
+        // MatrixStack.scale leaves normals alone for a uniform scale unless it mirrors them.
+        boolean mirrors = scale < 0.0f;
+        if (mirrors) {
+            normal.scale(-1.0f);
+        }
+        if (moves) {
+            position.translate((x / 100.0f) / scale, (y / 100.0f) / scale, (z / 100.0f) / scale);
+        }
+
+        this.identity = !rotates && !scales && !moves;
+        this.touchesNormal = rotates || mirrors;
+    }
+
+    private void rotate(Quaternionf quaternion) {
+        position.rotate(quaternion);
+        normal.rotate(quaternion);
+    }
+
+    public void applyTo(MatrixStack matrices) {
+        if (identity) {
+            return;
+        }
+        MatrixStack.Entry entry = matrices.peek();
+        entry.getPositionMatrix().mul(position);
+        if (touchesNormal) {
+            entry.getNormalMatrix().mul(normal);
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.viewmodel.client.gui;
+
+import java.util.Locale;
+
+import com.viewmodel.HookTimings;
+import com.viewmodel.LatencyHistogram;
+import net.minecraft.client.MinecraftClient;
+import net.minecraft.client.font.TextRenderer;
+import net.minecraft.client.gui.DrawContext;
+import net.minecraft.client.render.RenderTickCounter;
+
+/**
+ * Debug HUD listing p50/p99/max per {@link HookTimings.Probe}, in microseconds. Collection runs only while it
+ * is shown (or when forced on with {@code -Dviewmodel.timings=true}).
+ */
+public final class TimingsOverlay {
+    private static final int COLOR_BACKGROUND = 0xB0101010;
+    private static final int COLOR_HEADER = 0xFF9FA1A5;
+    private static final int COLOR_TEXT = 0xFFF0F0F0;
+    private static final int COLOR_ACCENT = 0xFF5CC8C1;
+    private static final int[] COLUMNS = {0, 78, 128, 174, 220};
+    private static final int WIDTH = 262;
+    private static final int MARGIN = 4;
+    private static final int LINE_HEIGHT = 10;
+
+    private static boolean visible;
+
+    private TimingsOverlay() {}
+
+    public static boolean isVisible() {
+        return visible;
+    }
+
+    public static void toggle() {
+        visible = !visible;
+        HookTimings.setEnabled(visible);
+    }
+
+    public static void render(DrawContext context, RenderTickCounter tickCounter) {
+        if (!visible) {
+            return;
+        }
+        TextRenderer font = MinecraftClient.getInstance().textRenderer;
+        HookTimings.Probe[] probes = HookTimings.Probe.values();
+        int x = MARGIN;
+        int y = MARGIN;
+        context.fill(x - 2, y - 2, x + WIDTH, y + (probes.length + 1) * LINE_HEIGHT, COLOR_BACKGROUND);
+
+        drawRow(context, font, y, COLOR_HEADER, COLOR_HEADER, "viewmodel µs", "n", "p50", "p99", "max");
+        for (HookTimings.Probe probe : probes) {
+            y += LINE_HEIGHT;
+            LatencyHistogram histogram = probe.histogram();
+            long count = histogram.count();
+            drawRow(
+                context,
+                font,
+                y,
+                count == 0 ? COLOR_HEADER : COLOR_TEXT,
+                count == 0 ? COLOR_HEADER : COLOR_ACCENT,
+                probe.label(),
+                Long.toString(count),
+                micros(histogram.percentile(0.50)),
+                micros(histogram.percentile(0.99)),
+                micros(histogram.max())
+            );
+        }
+    }
+
+    private static void drawRow(DrawContext context, TextRenderer font, int y, int labelColor, int valueColor, String... cells) {
+        for (int i = 0; i < cells.length; i++) {
+            context.drawText(font, cells[i], MARGIN + COLUMNS[i], y, i == 0 ? labelColor : valueColor, false);
+        }
+    }
+
+    private static String micros(long nanos) {
+        return String.format(Locale.ROOT, "%.1f", nanos / 1_000.0);
+    }
+}
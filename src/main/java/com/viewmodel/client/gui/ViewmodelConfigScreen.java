@@ -8,6 +8,7 @@ import java.util.function.DoubleConsumer;
 import java.util.function.DoubleSupplier;
 import java.util.function.Function;
 
+import com.viewmodel.ProfileEditor;
 import com.viewmodel.ViewModelConfig;
 import com.viewmodel.ViewModelProfile;
 import com.viewmodel.ViewModelProfileManager;
@@ -60,6 +61,7 @@ public class ViewmodelConfigScreen extends Screen {
 
     private final Screen parent;
     private final ViewModelProfileManager profileManager = ViewModelConfig.profiles();
+    private final ProfileEditor editor = new ProfileEditor();
     private final List<SliderLine> sliderLines = new ArrayList<>();
     private final List<SectionLabel> sectionLabels = new ArrayList<>();
 
@@ -142,7 +144,32 @@ public class ViewmodelConfigScreen extends Screen {
             this::handleDeleteProfile
         ));
 
-        int buttonsBottom = buttonsY + 18;
+        int handY = buttonsY + 18 + 10;
+        int handButtonWidth = (dropdownWidth - 4) / 2;
+        this.addDrawableChild(new MinimalButton(
+            leftPanelX + PANEL_PADDING,
+            handY,
+            handButtonWidth,
+            18,
+            Text.literal(editor.editingOffHand() ? "Off hand" : "Main hand"),
+            this::handleToggleEditedHand,
+            0xFF191919,
+            0xFF242424,
+            editor.editingOffHand() ? COLOR_ACCENT : COLOR_TEXT_PRIMARY
+        ));
+
+        this.addDrawableChild(new MinimalButton(
+            leftPanelX + PANEL_PADDING + handButtonWidth + 4,
+            handY,
+            handButtonWidth,
+            18,
+            Text.literal("Mirror"),
+            this::handleMirrorOffHand,
+            0xFF191919,
+            0xFF242424
+        ));
+
+        int buttonsBottom = handY + 18;
         this.leftPanelHeight = Math.max(
             140,
             buttonsBottom - leftPanelY + PANEL_PADDING + STATUS_FOOTER_SPACE
@@ -159,9 +186,9 @@ public class ViewmodelConfigScreen extends Screen {
             0.15,
             2.0,
             0.01,
-            () -> ViewModelConfig.current.getSize(),
+            () -> editor.editedHand().size(),
             ViewModelProfile.baseline().size(),
-            value -> setAndSync(ViewModelConfig.current::setSize, value),
+            value -> editor.set(ProfileEditor.Slider.SIZE, value),
             cursorY
         );
 
@@ -174,9 +201,9 @@ public class ViewmodelConfigScreen extends Screen {
             -50.0,
             50.0,
             0.50,
-            () -> ViewModelConfig.current.getPositionX(),
+            () -> editor.editedHand().positionX(),
             ViewModelProfile.baseline().positionX(),
-            value -> setAndSync(ViewModelConfig.current::setPositionX, value),
+            value -> editor.set(ProfileEditor.Slider.POSITION_X, value),
             cursorY
         );
 
@@ -185,9 +212,9 @@ public class ViewmodelConfigScreen extends Screen {
             -50.0,
             50.0,
             0.50,
-            () -> ViewModelConfig.current.getPositionY(),
+            () -> editor.editedHand().positionY(),
             ViewModelProfile.baseline().positionY(),
-            value -> setAndSync(ViewModelConfig.current::setPositionY, value),
+            value -> editor.set(ProfileEditor.Slider.POSITION_Y, value),
             cursorY
         );
 
@@ -196,9 +223,9 @@ public class ViewmodelConfigScreen extends Screen {
             -50.0,
             50.0,
             0.50,
-            () -> ViewModelConfig.current.getPositionZ(),
+            () -> editor.editedHand().positionZ(),
             ViewModelProfile.baseline().positionZ(),
-            value -> setAndSync(ViewModelConfig.current::setPositionZ, value),
+            value -> editor.set(ProfileEditor.Slider.POSITION_Z, value),
             cursorY
         );
 
@@ -211,9 +238,9 @@ public class ViewmodelConfigScreen extends Screen {
             -180.0,
             180.0,
             1.0,
-            () -> ViewModelConfig.current.getRotationYaw(),
+            () -> editor.editedHand().rotationYaw(),
             ViewModelProfile.baseline().rotationYaw(),
-            value -> setAndSync(ViewModelConfig.current::setRotationYaw, value),
+            value -> editor.set(ProfileEditor.Slider.ROTATION_YAW, value),
             cursorY
         );
 
@@ -222,9 +249,9 @@ public class ViewmodelConfigScreen extends Screen {
             -180.0,
             180.0,
             1.0,
-            () -> ViewModelConfig.current.getRotationPitch(),
+            () -> editor.editedHand().rotationPitch(),
             ViewModelProfile.baseline().rotationPitch(),
-            value -> setAndSync(ViewModelConfig.current::setRotationPitch, value),
+            value -> editor.set(ProfileEditor.Slider.ROTATION_PITCH, value),
             cursorY
         );
 
@@ -233,9 +260,9 @@ public class ViewmodelConfigScreen extends Screen {
             -180.0,
             180.0,
             1.0,
-            () -> ViewModelConfig.current.getRotationRoll(),
+            () -> editor.editedHand().rotationRoll(),
             ViewModelProfile.baseline().rotationRoll(),
-            value -> setAndSync(ViewModelConfig.current::setRotationRoll, value),
+            value -> editor.set(ProfileEditor.Slider.ROTATION_ROLL, value),
             cursorY
         );
 
@@ -247,7 +274,7 @@ public class ViewmodelConfigScreen extends Screen {
             20,
             Text.literal("NO SWING"),
             () -> ViewModelConfig.current.getNoSwing(),
-            value -> setAndSync(ViewModelConfig.current::setNoSwing, value)
+            value -> editor.set(ProfileEditor.Toggle.NO_SWING, value)
         ));
 
         cursorY += 28;
@@ -258,7 +285,7 @@ public class ViewmodelConfigScreen extends Screen {
             20,
             Text.literal("SCALE SWING"),
             () -> ViewModelConfig.current.getScaleSwing(),
-            value -> setAndSync(ViewModelConfig.current::setScaleSwing, value)
+            value -> editor.set(ProfileEditor.Toggle.SCALE_SWING, value)
         ));
 
         cursorY += 20;
@@ -332,7 +359,7 @@ public class ViewmodelConfigScreen extends Screen {
                 if (input.isBlank()) {
                     return Text.literal("Name cannot be empty");
                 }
-                ViewModelProfile created = profileManager.create(input);
+                ViewModelProfile created = editor.create(input);
                 if (created == null) {
                     return Text.literal("Unable to create profile");
                 }
@@ -356,7 +383,7 @@ public class ViewmodelConfigScreen extends Screen {
                 if (input.isBlank()) {
                     return Text.literal("Name cannot be empty");
                 }
-                if (!profileManager.renameActive(input)) {
+                if (!editor.rename(input)) {
                     return Text.literal("Name already exists");
                 }
                 setStatus(Text.literal("Renamed to " + profileManager.getActiveProfile().name()));
@@ -367,7 +394,7 @@ public class ViewmodelConfigScreen extends Screen {
     }
 
     private void handleDeleteProfile() {
-        if (!profileManager.deleteActive()) {
+        if (!editor.delete()) {
             setStatus(Text.literal("Cannot delete last profile").formatted(Formatting.RED));
             return;
         }
@@ -379,15 +406,25 @@ public class ViewmodelConfigScreen extends Screen {
         if (index == profileManager.getActiveIndex()) {
             return;
         }
-        profileManager.select(index);
+        editor.select(index);
         setStatus(Text.literal("Switched to " + profileManager.getActiveProfile().name()));
         this.clearAndInit();
     }
 
+    private void handleToggleEditedHand() {
+        editor.toggleEditedHand();
+        setStatus(Text.literal(editor.editingOffHand() ? "Editing the off hand" : "Editing the main hand"));
+        this.clearAndInit();
+    }
+
+    private void handleMirrorOffHand() {
+        editor.mirrorOffHand();
+        setStatus(Text.literal("Off hand mirrors the main hand"));
+        this.clearAndInit();
+    }
+
     private void handleResetAll() {
-        ViewModelProfile baseline = ViewModelProfile.baseline();
-        baseline.apply(ViewModelConfig.current);
-        profileManager.updateActiveFromConfig();
+        editor.resetAll();
 
         for (SliderLine line : sliderLines) {
             line.slider().syncFrom(line.supplier().getAsDouble());
@@ -401,16 +438,6 @@ public class ViewmodelConfigScreen extends Screen {
         setStatus(Text.literal("Reset to defaults"));
     }
 
-    private void setAndSync(FloatSetter setter, double value) {
-        setter.accept((float) value);
-        profileManager.updateActiveFromConfig();
-    }
-
-    private void setAndSync(BooleanSetter setter, boolean value) {
-        setter.accept(value);
-        profileManager.updateActiveFromConfig();
-    }
-
     private void setStatus(Text message) {
         this.statusMessage = message;
         this.statusTicks = 80;
@@ -445,6 +472,12 @@ public class ViewmodelConfigScreen extends Screen {
         }
     }
 
+    @Override
+    public void removed() {
+        super.removed();
+        editor.flush();
+    }
+
     @Override
     public void render(DrawContext context, int mouseX, int mouseY, float delta) {
         renderDimBackground(context);
@@ -487,10 +520,6 @@ public class ViewmodelConfigScreen extends Screen {
         context.drawBorder(x, y, width, height, COLOR_PANEL_BORDER);
     }
 
-    private interface FloatSetter {
-        void accept(float value);
-    }
-
     private interface BooleanSetter {
         void accept(boolean value);
     }
@@ -1,6 +1,11 @@
 package com.viewmodel.mixin;
 
+import com.viewmodel.HookTimings;
+import com.viewmodel.SwingCurves;
 import com.viewmodel.ViewModelConfig;
+import com.viewmodel.ViewModelRenderState;
+import com.viewmodel.ViewModelTransform;
+import net.minecraft.client.network.AbstractClientPlayerEntity;
 import net.minecraft.client.render.VertexConsumerProvider;
 import net.minecraft.client.render.item.HeldItemRenderer;
 import net.minecraft.client.util.math.MatrixStack;
@@ -8,10 +13,12 @@ import net.minecraft.entity.LivingEntity;
 import net.minecraft.item.ItemStack;
 import net.minecraft.item.ModelTransformationMode;
 import net.minecraft.util.Arm;
+import net.minecraft.util.Hand;
 import net.minecraft.util.math.MathHelper;
-import net.minecraft.util.math.RotationAxis;
+import org.joml.Quaternionf;
 import org.spongepowered.asm.mixin.Mixin;
 import org.spongepowered.asm.mixin.Shadow;
+import org.spongepowered.asm.mixin.Unique;
 import org.spongepowered.asm.mixin.injection.At;
 import org.spongepowered.asm.mixin.injection.Inject;
 import org.spongepowered.asm.mixin.injection.Redirect;
@@ -23,6 +30,56 @@ public abstract class HeldItemRendererMixin {
     @Shadow
     protected abstract void renderItem(LivingEntity entity, ItemStack stack, ModelTransformationMode renderMode, boolean leftHanded, MatrixStack matrices, VertexConsumerProvider vertexConsumers, int light);
 
+    /**
+     * Состояние, прочитанное один раз в начале отрисовки руки (с учётом профиля, привязанного к предмету,
+     * и правил); все хуки ниже используют именно его
+     */
+    @Unique
+    private ViewModelRenderState viewmodel$frameState;
+
+    /**
+     * Матрица для этой руки: либо готовая из состояния, либо промежуточная во время плавного перехода
+     */
+    @Unique
+    private ViewModelTransform viewmodel$frameTransform;
+
+    /**
+     * Общий кватернион для поворотов в хуках, чтобы каждый кадр не создавать новые объекты
+     */
+    @Unique
+    private final Quaternionf viewmodel$rotation = new Quaternionf();
+
+    @Inject(method = "renderFirstPersonItem", at = @At("HEAD"))
+    private void captureRenderState(
+            AbstractClientPlayerEntity player,
+            float tickDelta,
+            float pitch,
+            Hand hand,
+            float swingProgress,
+            ItemStack item,
+            float equipProgress,
+            MatrixStack matrices,
+            VertexConsumerProvider vertexConsumers,
+            int light,
+            CallbackInfo ci
+    ) {
+        long start = HookTimings.start();
+        Arm arm = hand == Hand.MAIN_HAND ? player.getMainArm() : player.getMainArm().getOpposite();
+        ViewModelRenderState state = ViewModelConfig.renderStateFor(item, arm);
+        this.viewmodel$frameState = state;
+        this.viewmodel$frameTransform = item.isEmpty()
+                ? state.transform(hand, arm)
+                : ViewModelConfig.transformFor(hand, arm, state, tickDelta);
+        HookTimings.record(HookTimings.Probe.CAPTURE, start);
+    }
+
+    @Unique
+    private ViewModelRenderState viewmodel$state() {
+        ViewModelRenderState state = this.viewmodel$frameState;
+        // Другие моды могут вызвать эти методы вне renderFirstPersonItem
+        return state != null ? state : ViewModelConfig.current.renderState();
+    }
+
     /**
      * ГЛАВНАЯ ТРАНСФОРМАЦИЯ: позиция/масштаб/вращение из GUI
      */
@@ -44,37 +101,15 @@ public abstract class HeldItemRendererMixin {
             int light
     ) {
         if (!stack.isEmpty()) {
-            ViewModelConfig config = ViewModelConfig.current;
-
-            // Вращение
-            float rotX = config.getRotationPitch();
-            float rotY = config.getRotationYaw();
-            float rotZ = config.getRotationRoll();
-
-            if (rotX != 0 || rotY != 0 || rotZ != 0) {
-                matrices.multiply(RotationAxis.POSITIVE_X.rotationDegrees(rotX));
-                matrices.multiply(RotationAxis.POSITIVE_Y.rotationDegrees(rotY));
-                matrices.multiply(RotationAxis.POSITIVE_Z.rotationDegrees(rotZ));
-            }
-
-            // Масштаб
-            float scale = config.getSize();
-            if (scale != 1.0f) {
-                matrices.scale(scale, scale, scale);
-            }
-
-            // Позиция
-            float x = config.getPositionX();
-            float y = config.getPositionY();
-            float z = config.getPositionZ();
-
-            if (x != 0 || y != 0 || z != 0) {
-                matrices.translate(
-                        (x / 100.0f) / scale,
-                        (y / 100.0f) / scale,
-                        (z / 100.0f) / scale
-                );
+            long start = HookTimings.start();
+            // Поворот, масштаб и смещение уже собраны в одну матрицу при изменении настроек (отдельно для каждой руки,
+            // для левой — зеркально)
+            ViewModelTransform transform = this.viewmodel$frameTransform;
+            if (transform == null) {
+                transform = viewmodel$state().transform(Hand.MAIN_HAND, leftHanded ? Arm.LEFT : Arm.RIGHT);
             }
+            transform.applyTo(matrices);
+            HookTimings.record(HookTimings.Probe.TRANSFORM, start);
         }
 
         this.renderItem(entity, stack, renderMode, leftHanded, matrices, vertexConsumers, light);
@@ -85,7 +120,8 @@ public abstract class HeldItemRendererMixin {
      */
     @Inject(method = "applyEquipOffset", at = @At("HEAD"), cancellable = true)
     private void onApplyEquipOffset(MatrixStack matrices, Arm arm, float equipProgress, CallbackInfo ci) {
-        ViewModelConfig config = ViewModelConfig.current;
+        long start = HookTimings.start();
+        ViewModelRenderState state = viewmodel$state();
         int dir = (arm == Arm.RIGHT) ? 1 : -1;
 
         // Базовая позиция руки
@@ -94,11 +130,12 @@ public abstract class HeldItemRendererMixin {
         // БЕЗ анимации опускания (equipProgress * -0.6F)
 
         // ДОБАВЛЯЕМ ПОВОРОТ -45° если включен NO SWING или SCALE SWING
-        if (config.getNoSwing() || config.getScaleSwing()) {
-            matrices.multiply(RotationAxis.POSITIVE_Y.rotationDegrees(-dir * 0.0F));
+        if (state.noSwing() || state.scaleSwing()) {
+            matrices.multiply(viewmodel$rotation.rotationY(-dir * 0.0F * MathHelper.RADIANS_PER_DEGREE));
         }
 
         ci.cancel();
+        HookTimings.record(HookTimings.Probe.EQUIP, start);
     }
 
     /**
@@ -111,59 +148,23 @@ public abstract class HeldItemRendererMixin {
             cancellable = true
     )
     private void onApplySwingOffset(MatrixStack matrices, Arm arm, float swingProgress, CallbackInfo ci) {
-        ViewModelConfig config = ViewModelConfig.current;
-
-        boolean noSwing = config.getNoSwing();
-        boolean scaleSwing = config.getScaleSwing();
-
-        // Если ничего не включено — ванильная анимация
-        if (!noSwing && !scaleSwing) {
-            return;
-        }
-
-        int dir = (arm == Arm.RIGHT) ? 1 : -1;
-
-        // Считаем ванильное смещение (которое было ДО applySwingOffset)
-        float sqrtProgress = MathHelper.sqrt(swingProgress);
-        float baseF = -0.4F * MathHelper.sin(sqrtProgress * (float) Math.PI);
-        float baseG =  0.2F * MathHelper.sin(sqrtProgress * (float) Math.PI * 2.0F);
-        float baseH = -0.2F * MathHelper.sin(swingProgress * (float) Math.PI);
-
-        // Отменяем ванильное смещение
-        matrices.translate(-dir * baseF, -baseG, -baseH);
-
-        // Тригонометрия ванильного вращения
-        float sinSq   = MathHelper.sin(swingProgress * swingProgress * (float) Math.PI);
-        float sinSqrt = MathHelper.sin(sqrtProgress * (float) Math.PI);
-
-        if (noSwing) {
-            // NO SWING - только вращения, без смещений
-            // УБИРАЕМ +45° из ванильной формулы, так как мы уже повернули на -45° в applyEquipOffset
-            matrices.multiply(RotationAxis.POSITIVE_Y.rotationDegrees(dir * (sinSq * 0.0F)));
-            matrices.multiply(RotationAxis.POSITIVE_Z.rotationDegrees(dir * sinSqrt * 20.0F));
-            matrices.multiply(RotationAxis.POSITIVE_X.rotationDegrees(sinSqrt * -40.0F));
-
-            ci.cancel();
-            return;
-        }
-
-        if (scaleSwing) {
-            // SCALE SWING - масштабируем и смещение, и вращение
-            float scale = config.getSize();
-
-            // Смещение с масштабом
-            float f = baseF * scale;
-            float g = baseG * scale;
-            float h = baseH * scale;
-            matrices.translate(dir * f, g, h);
+        long start = HookTimings.start();
+        // Время записывается при любом выходе, в том числе когда остаётся ванильная анимация
+        try {
+            SwingCurves swing = viewmodel$state().swing();
+
+            // Если ничего не включено — ванильная анимация
+            if (swing == null) {
+                return;
+            }
 
-            // Вращение с масштабом
-            // УБИРАЕМ +45° из ванильной формулы
-            matrices.multiply(RotationAxis.POSITIVE_Y.rotationDegrees(dir * (sinSq * -20.0F) * scale));
-            matrices.multiply(RotationAxis.POSITIVE_Z.rotationDegrees(dir * sinSqrt * -20.0F * scale));
-            matrices.multiply(RotationAxis.POSITIVE_X.rotationDegrees(sinSqrt * -80.0F * scale));
+            int dir = (arm == Arm.RIGHT) ? 1 : -1;
 
+            // Отмена ванильного смещения и новая анимация берутся из таблиц, пересчитанных при смене режима или размера
+            swing.applyTo(matrices, dir, swingProgress, viewmodel$rotation);
             ci.cancel();
+        } finally {
+            HookTimings.record(HookTimings.Probe.SWING, start);
         }
     }
 }